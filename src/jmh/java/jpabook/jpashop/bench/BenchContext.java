@@ -0,0 +1,57 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.InflearnSpringJpa1Application;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 벤치마크용 스프링 컨텍스트
+ *
+ * application.yaml 은 tcp h2 를 바라보므로 커맨드라인 인자로 덮어써서 매번 새로운 in-memory h2 를 띄운다.
+ * p6spy 는 모든 쿼리를 로깅하므로 측정값이 왜곡되지 않도록 끈다. (샘플링 SQL 기록도 끔)
+ */
+public final class BenchContext {
+    private static final String[] DEFAULT_ARGS = {
+            "--spring.jpa.hibernate.ddl-auto=create",
+            "--spring.jpa.open-in-view=false",
+            "--spring.jpa.properties.hibernate.generate_statistics=true",
+            "--spring.jpa.properties.hibernate.format_sql=false",
+            "--decorator.datasource.enabled=false",
+            "--jpashop.sql-sampling.enabled=false",
+            "--logging.level.root=warn",
+            "--logging.level.org.hibernate.engine.internal.StatisticalLoggingSessionEventListener=off",
+    };
+
+    private BenchContext() {
+    }
+
+    /**
+     * @param extraArgs "--key=value" 형식으로 추가/덮어쓸 설정
+     */
+    public static ConfigurableApplicationContext start(String... extraArgs) {
+        List<String> args = new ArrayList<>();
+        args.add("--spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        args.addAll(Arrays.asList(DEFAULT_ARGS));
+        args.addAll(Arrays.asList(extraArgs));
+
+        return new SpringApplicationBuilder(InflearnSpringJpa1Application.class)
+                .web(WebApplicationType.NONE)
+                .logStartupInfo(false)
+                .run(args.toArray(new String[0]));
+    }
+
+    public static Statistics statistics(ConfigurableApplicationContext ctx) {
+        return ctx.getBean(EntityManagerFactory.class)
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+}
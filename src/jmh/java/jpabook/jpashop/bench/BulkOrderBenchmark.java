@@ -0,0 +1,80 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.service.BulkOrderDto;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * order() 반복 호출 vs orderBulk() 의 초당 주문 수 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=BulkOrderBenchmark
+ *
+ * thrpt 는 주문 1건 기준 (@OperationsPerInvocation)
+ * order() 는 주문상품을 1개만 받으므로 loop 쪽은 주문상품마다 order() 를 1번씩 호출한다. (= 같은 양의 주문상품)
+ */
+@State(Scope.Benchmark)
+@OperationsPerInvocation(BulkOrderBenchmark.ORDERS_PER_CALL)
+public class BulkOrderBenchmark {
+    static final int ORDERS_PER_CALL = 1_000;
+    private static final int MEMBER_COUNT = 100;
+    private static final int ITEM_COUNT = 100;
+
+    @Param({"1", "5"})
+    int linesPerOrder;
+
+    private ConfigurableApplicationContext ctx;
+    private OrderService orderService;
+    private List<BulkOrderDto> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        orderService = ctx.getBean(OrderService.class);
+
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        for (int i = 0; i < MEMBER_COUNT; i++) {
+            jdbc.update("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)",
+                    OrderDataSeeder.ID_BASE + i, "member" + i, "서울", "street", "12345");
+        }
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            jdbc.update("insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)",
+                    OrderDataSeeder.ID_BASE + i, "B", "book" + i, 10_000, Integer.MAX_VALUE, 0);
+        }
+
+        orders = new ArrayList<>(ORDERS_PER_CALL);
+        for (int i = 0; i < ORDERS_PER_CALL; i++) {
+            List<BulkOrderDto.Line> lines = new ArrayList<>();
+            for (int j = 0; j < linesPerOrder; j++) {
+                lines.add(new BulkOrderDto.Line(OrderDataSeeder.ID_BASE + (i + j) % ITEM_COUNT, 1));
+            }
+            orders.add(new BulkOrderDto(OrderDataSeeder.ID_BASE + i % MEMBER_COUNT, lines));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public int loopOrder() {
+        int created = 0;
+        for (BulkOrderDto o : orders) {
+            for (BulkOrderDto.Line line : o.getLines()) {
+                orderService.order(o.getMemberId(), line.getItemId(), line.getCount());
+                created++;
+            }
+        }
+        return created;
+    }
+
+    @Benchmark
+    public int bulkOrder() {
+        return orderService.orderBulk(orders).size();
+    }
+}
@@ -0,0 +1,160 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.CategoryRepository;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 카테고리 서브트리 조회 : parent/child lazy loading 으로 순회 vs closure table 한방 조회
+ *
+ * ./gradlew jmh -PjmhIncludes=CategoryTreeBenchmark
+ *
+ * - 노드 nodeCount 개, 자식 fanOut 개씩인 트리 (10000 / 10 이면 깊이 4)
+ * - 리프 카테고리마다 상품 1개씩
+ * - descendants : 루트의 모든 하위 카테고리
+ * - items : 루트 서브트리의 상품 첫 페이지 (상품 id 순 pageSize 건)
+ * trial 시작 시 op당 SQL 수행 횟수를 콘솔에 출력
+ */
+@State(Scope.Benchmark)
+public class CategoryTreeBenchmark {
+
+    @Param({"10000"})
+    int nodeCount;
+
+    @Param({"10"})
+    int fanOut;
+
+    @Param({"lazyWalk", "closure"})
+    String strategy;
+
+    @Param({"descendants", "items"})
+    String query;
+
+    @Param({"100"})
+    int pageSize;
+
+    private ConfigurableApplicationContext ctx;
+    private TransactionTemplate readOnlyTx;
+    private CategoryRepository categoryRepository;
+    private Long rootId;
+    private Supplier<Object> fetch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        categoryRepository = ctx.getBean(CategoryRepository.class);
+        TransactionTemplate tx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        List<Long> leafIds = tx.execute(s -> buildTree());
+        rootId = leafIds.remove(leafIds.size() - 1);
+        insertItems(ctx.getBean(JdbcTemplate.class), leafIds);
+
+        readOnlyTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        fetch = strategy();
+
+        Statistics stats = BenchContext.statistics(ctx);
+        long before = stats.getPrepareStatementCount();
+        Object result = fetchSubtree();
+        System.out.printf("%n[%s/%s] nodes=%d, fanOut=%d -> results=%d, SQL statements per op: %d%n",
+                strategy, query, nodeCount, fanOut, ((List<?>) result).size(), stats.getPrepareStatementCount() - before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object fetchSubtree() {
+        // 매 호출마다 새로운 트랜잭션 = 새로운 영속성 컨텍스트
+        return readOnlyTx.execute(s -> fetch.get());
+    }
+
+    private Supplier<Object> strategy() {
+        switch (strategy + "/" + query) {
+            case "lazyWalk/descendants":
+                return () -> walk(categoryRepository.findOne(rootId));
+            case "lazyWalk/items":
+                return () -> walkItems(categoryRepository.findOne(rootId));
+            case "closure/descendants":
+                return () -> categoryRepository.findDescendants(rootId);
+            case "closure/items":
+                return () -> categoryRepository.findItemsInSubtree(rootId, null, pageSize);
+            default:
+                throw new IllegalArgumentException("unknown strategy : " + strategy + "/" + query);
+        }
+    }
+
+    /** child 컬렉션을 따라 내려가며 노드마다 lazy loading */
+    private List<Category> walk(Category root) {
+        List<Category> result = new ArrayList<>();
+        Deque<Category> queue = new ArrayDeque<>(root.getChild());
+        while (!queue.isEmpty()) {
+            Category c = queue.poll();
+            result.add(c);
+            queue.addAll(c.getChild());
+        }
+        return result;
+    }
+
+    private List<Item> walkItems(Category root) {
+        TreeMap<Long, Item> items = new TreeMap<>();
+        root.getItems().forEach(i -> items.put(i.getId(), i));
+        for (Category c : walk(root)) {
+            c.getItems().forEach(i -> items.put(i.getId(), i));
+        }
+        return items.values().stream().limit(pageSize).collect(Collectors.toList());
+    }
+
+    /**
+     * addChildCategory 로 트리를 만들어서 closure 도 함께 저장
+     * @return 리프 카테고리 id 목록 + 마지막에 루트 id
+     */
+    private List<Long> buildTree() {
+        List<Category> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            Category c = new Category();
+            c.setName("category" + i);
+            categoryRepository.save(c);
+            if (i > 0) {
+                nodes.get((i - 1) / fanOut).addChildCategory(c);
+            }
+            nodes.add(c);
+        }
+
+        List<Long> ids = nodes.stream()
+                .filter(c -> c.getChild().isEmpty())
+                .map(Category::getId)
+                .sorted(Comparator.naturalOrder())
+                .collect(Collectors.toList());
+        ids.add(nodes.get(0).getId());
+        return ids;
+    }
+
+    private void insertItems(JdbcTemplate jdbc, List<Long> leafIds) {
+        List<Object[]> items = new ArrayList<>(leafIds.size());
+        List<Object[]> links = new ArrayList<>(leafIds.size());
+        for (int i = 0; i < leafIds.size(); i++) {
+            long itemId = OrderDataSeeder.ID_BASE + i;
+            items.add(new Object[]{itemId, "B", "book" + i, 10_000, 100, 0});
+            links.add(new Object[]{leafIds.get(i), itemId});
+        }
+        jdbc.batchUpdate("insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)", items);
+        jdbc.batchUpdate("insert into category_item (category_id, item_id) values (?, ?)", links);
+    }
+}
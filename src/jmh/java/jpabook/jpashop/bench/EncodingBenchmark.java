@@ -0,0 +1,136 @@
+package jpabook.jpashop.bench;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 주문 목록(/api/v5, v6 응답) 인코딩 비교 : json / smile / cbor x 압축 없음 / gzip / deflate
+ *
+ * ./gradlew jmh -PjmhIncludes=EncodingBenchmark
+ *
+ * - encode : DTO 목록 -> byte[] (서버 쪽 비용)
+ * - decode : byte[] -> JsonNode 트리 (클라이언트 쪽 파싱 비용)
+ * - 크기 : trial 시작 시 인코딩 결과 바이트 수를 콘솔에 출력
+ */
+@State(Scope.Benchmark)
+public class EncodingBenchmark {
+
+    @Param({"1000", "10000"})
+    int orderCount;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"none", "gzip", "deflate"})
+    String compression;
+
+    private ObjectMapper mapper;
+    private List<OrderQueryDto> orders;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json()
+                .factory(factory())
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        orders = new ArrayList<>(orderCount);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < orderCount; i++) {
+            long id = i;
+            OrderQueryDto o = new OrderQueryDto(id, "member" + i, base.plusSeconds(i), OrderStatus.ORDER,
+                    new Address("서울", "street" + i, "12345"));
+            List<OrderItemQueryDto> items = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(new OrderItemQueryDto(id, "book" + j, 10_000, 1 + j));
+            }
+            o.setOrderItems(items);
+            orders.add(o);
+        }
+
+        encoded = encode();
+        System.out.printf("%n[%s/%s] orders=%d, itemsPerOrder=%d -> payload bytes: %d%n",
+                format, compression, orderCount, itemsPerOrder, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream out = compress(bytes)) {
+            mapper.writeValue(out, orders);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object decode() throws IOException {
+        try (InputStream in = decompress(new ByteArrayInputStream(encoded))) {
+            return mapper.readTree(in);
+        }
+    }
+
+    private JsonFactory factory() {
+        switch (format) {
+            case "json":
+                return new JsonFactory();
+            case "smile":
+                return new SmileFactory();
+            case "cbor":
+                return new CBORFactory();
+            default:
+                throw new IllegalArgumentException("unknown format : " + format);
+        }
+    }
+
+    private OutputStream compress(OutputStream out) throws IOException {
+        switch (compression) {
+            case "none":
+                return out;
+            case "gzip":
+                return new GZIPOutputStream(out, 8192);
+            case "deflate":
+                return new DeflaterOutputStream(out);
+            default:
+                throw new IllegalArgumentException("unknown compression : " + compression);
+        }
+    }
+
+    private InputStream decompress(InputStream in) throws IOException {
+        switch (compression) {
+            case "none":
+                return in;
+            case "gzip":
+                return new GZIPInputStream(in, 8192);
+            case "deflate":
+                return new InflaterInputStream(in);
+            default:
+                throw new IllegalArgumentException("unknown compression : " + compression);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.PooledSequenceGenerator;
+import jpabook.jpashop.service.BulkOrderDto;
+import jpabook.jpashop.service.OrderService;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 시퀀스 increment_size 에 따른 주문 생성 비용 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=IdGenerationBenchmark
+ *
+ * incrementSize=1 이 예전 @GeneratedValue 기본 동작 (row 마다 시퀀스 조회)
+ * trial 시작 시 주문 1건당 DB 왕복 횟수(prepared statement 수, 시퀀스 조회 포함)를 콘솔에 출력
+ */
+@State(Scope.Benchmark)
+@OperationsPerInvocation(IdGenerationBenchmark.ORDERS_PER_CALL)
+public class IdGenerationBenchmark {
+    static final int ORDERS_PER_CALL = 1_000;
+    private static final long MEMBER_ID = OrderDataSeeder.ID_BASE;
+    private static final long ITEM_ID = OrderDataSeeder.ID_BASE;
+
+    @Param({"1", "50"})
+    int incrementSize;
+
+    private ConfigurableApplicationContext ctx;
+    private OrderService orderService;
+    private List<BulkOrderDto> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start("--spring.jpa.properties." + PooledSequenceGenerator.DEFAULT_INCREMENT_SIZE + "=" + incrementSize);
+        orderService = ctx.getBean(OrderService.class);
+
+        JdbcTemplate jdbc = ctx.getBean(JdbcTemplate.class);
+        jdbc.update("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)",
+                MEMBER_ID, "member", "서울", "street", "12345");
+        jdbc.update("insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)",
+                ITEM_ID, "B", "book", 10_000, Integer.MAX_VALUE, 0);
+
+        orders = new ArrayList<>(ORDERS_PER_CALL);
+        for (int i = 0; i < ORDERS_PER_CALL; i++) {
+            orders.add(new BulkOrderDto(MEMBER_ID, Collections.singletonList(new BulkOrderDto.Line(ITEM_ID, 1))));
+        }
+
+        Statistics stats = BenchContext.statistics(ctx);
+        long before = stats.getPrepareStatementCount();
+        singleOrder();
+        long single = stats.getPrepareStatementCount() - before;
+
+        before = stats.getPrepareStatementCount();
+        bulkOrder();
+        double bulk = (double) (stats.getPrepareStatementCount() - before) / ORDERS_PER_CALL;
+
+        System.out.printf("%n[incrementSize=%d] round-trips per order : order()=%d, orderBulk()=%.2f%n", incrementSize, single, bulk);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(1)
+    public Long singleOrder() {
+        return orderService.order(MEMBER_ID, ITEM_ID, 1);
+    }
+
+    @Benchmark
+    public int bulkOrder() {
+        return orderService.orderBulk(orders).size();
+    }
+}
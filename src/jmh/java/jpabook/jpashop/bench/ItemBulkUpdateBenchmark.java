@@ -0,0 +1,103 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemPriceStock;
+import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.BookUpdateDto;
+import jpabook.jpashop.service.ItemService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 상품 가격/재고 일괄 변경 (야간 가격 재조정) 의 초당 상품 수 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=ItemBulkUpdateBenchmark
+ *
+ * thrpt 는 상품 1건 기준 (@OperationsPerInvocation)
+ * - loopUpdateBook : 지금처럼 updateBook 을 상품마다 호출 (상품마다 트랜잭션, find + 더티체킹)
+ * - dirtyCheckingOneTx : 트랜잭션 하나에서 전체 상품을 in 쿼리로 읽어 값만 바꾸고 커밋 (더티체킹 + jdbc batch update)
+ * - bulkUpdate : ItemService.updatePriceAndStock (조회 없이 jdbc batch update + 바뀐 상품만 캐시 evict)
+ * 매 호출마다 값을 바꿔서 더티체킹이 update 를 건너뛰지 않도록 한다.
+ */
+@State(Scope.Benchmark)
+@OperationsPerInvocation(ItemBulkUpdateBenchmark.ITEM_COUNT)
+public class ItemBulkUpdateBenchmark {
+    static final int ITEM_COUNT = 10_000;
+
+    private ConfigurableApplicationContext ctx;
+    private ItemService itemService;
+    private ItemRepository itemRepository;
+    private TransactionTemplate tx;
+    private List<Long> ids;
+    private int round;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        itemService = ctx.getBean(ItemService.class);
+        itemRepository = ctx.getBean(ItemRepository.class);
+        tx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+
+        ids = new ArrayList<>(ITEM_COUNT);
+        List<Object[]> rows = new ArrayList<>(ITEM_COUNT);
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            long id = OrderDataSeeder.ID_BASE + i;
+            ids.add(id);
+            rows.add(new Object[]{id, "B", "book" + i, 10_000, 100, 0});
+        }
+        ctx.getBean(JdbcTemplate.class).batchUpdate(
+                "insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)", rows);
+
+        // 2차 캐시에 올려둔 상태에서 시작 (evict 비용도 측정에 포함되도록)
+        itemService.findItems();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Setup(Level.Invocation)
+    public void nextRound() {
+        round++;
+    }
+
+    @Benchmark
+    public int loopUpdateBook() {
+        for (int i = 0; i < ids.size(); i++) {
+            BookUpdateDto dto = new BookUpdateDto();
+            dto.setName("book" + i);
+            dto.setPrice(10_000 + round);
+            dto.setStockQuantity(100 + round);
+            itemService.updateBook(ids.get(i), dto);
+        }
+        return ids.size();
+    }
+
+    @Benchmark
+    public int dirtyCheckingOneTx() {
+        return tx.execute(s -> {
+            List<Item> items = itemRepository.findAllByIds(ids);
+            for (Item item : items) {
+                item.setPrice(10_000 + round);
+                item.setStockQuantity(100 + round);
+            }
+            return items.size();
+        });
+    }
+
+    @Benchmark
+    public int bulkUpdate() {
+        List<ItemPriceStock> rows = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            rows.add(new ItemPriceStock(id, 10_000 + round, 100 + round));
+        }
+        return ids.size() - itemService.updatePriceAndStock(rows).size();
+    }
+}
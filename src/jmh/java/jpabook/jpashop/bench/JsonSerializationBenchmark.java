@@ -0,0 +1,86 @@
+package jpabook.jpashop.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import jpabook.jpashop.api.OrderJsonSerializers;
+import jpabook.jpashop.config.DtoJsonHttpMessageConverter;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문 목록(OrderQueryDto) 직렬화 : 기본 ObjectMapper(Hibernate5Module) vs fast path(전용 serializer)
+ *
+ * ./gradlew jmh -PjmhIncludes=JsonSerializationBenchmark
+ *
+ * - DB 없이 메모리의 DTO 목록만 직렬화
+ * - string : writeValueAsString 후 응답에 쓰는 경우 (중간 String + byte[] 변환)
+ * - stream : 응답 OutputStream 에 바로 쓰는 경우 (여기서는 버리는 스트림)
+ */
+@State(Scope.Benchmark)
+public class JsonSerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    int orderCount;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"hibernate5Module", "fastPath"})
+    String strategy;
+
+    @Param({"string", "stream"})
+    String output;
+
+    private ObjectMapper mapper;
+    private List<OrderQueryDto> orders;
+    private final OutputStream out = OutputStream.nullOutputStream();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("fastPath".equals(strategy)) {
+            mapper = DtoJsonHttpMessageConverter.createObjectMapper(OrderJsonSerializers.module());
+        } else {
+            mapper = Jackson2ObjectMapperBuilder.json()
+                    .modulesToInstall(new Hibernate5Module())
+                    .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+        }
+
+        orders = new ArrayList<>(orderCount);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        for (int i = 0; i < orderCount; i++) {
+            long id = i;
+            OrderQueryDto o = new OrderQueryDto(id, "member" + i, base.plusSeconds(i), OrderStatus.ORDER,
+                    new Address("서울", "street" + i, "12345"));
+            List<OrderItemQueryDto> items = new ArrayList<>(itemsPerOrder);
+            for (int j = 0; j < itemsPerOrder; j++) {
+                items.add(new OrderItemQueryDto(id, "book" + j, 10_000, 1 + j));
+            }
+            o.setOrderItems(items);
+            orders.add(o);
+        }
+    }
+
+    @Benchmark
+    public Object serialize() throws IOException {
+        if ("string".equals(output)) {
+            String json = mapper.writeValueAsString(orders);
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+            return json;
+        }
+        mapper.writeValue(out, orders);
+        return out;
+    }
+}
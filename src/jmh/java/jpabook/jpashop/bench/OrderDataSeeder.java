@@ -0,0 +1,95 @@
+package jpabook.jpashop.bench;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 대량 데이터 적재
+ *
+ * JPA로 수백만건을 persist 하면 적재 자체가 측정보다 오래 걸리므로 JDBC batch 로 직접 넣는다.
+ * SampleDataSetup 이 시퀀스로 생성한 id 와 겹치지 않도록 id는 ID_BASE 부터 사용한다.
+ */
+public class OrderDataSeeder {
+    public static final long ID_BASE = 100_000_000L;
+    private static final int CHUNK = 10_000;
+
+    private final JdbcTemplate jdbc;
+
+    public OrderDataSeeder(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /**
+     * @param orderCount    주문 수
+     * @param itemsPerOrder 주문당 주문상품 수 (fan-out)
+     */
+    public void seed(int orderCount, int itemsPerOrder) {
+        int memberCount = Math.max(1, orderCount / 10);
+        int itemCount = 1_000;
+
+        insertMembers(memberCount);
+        insertItems(itemCount);
+        insertOrders(orderCount, itemsPerOrder, memberCount, itemCount);
+    }
+
+    private void insertMembers(int memberCount) {
+        List<Object[]> rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < memberCount; i++) {
+            rows.add(new Object[]{ID_BASE + i, "member" + i, "서울", "street" + i, "12345"});
+            if (rows.size() == CHUNK) {
+                flush("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", rows);
+            }
+        }
+        flush("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)", rows);
+    }
+
+    private void insertItems(int itemCount) {
+        List<Object[]> rows = new ArrayList<>(CHUNK);
+        for (int i = 0; i < itemCount; i++) {
+            rows.add(new Object[]{ID_BASE + i, "B", "book" + i, 10_000 + i, Integer.MAX_VALUE, 0});
+        }
+        flush("insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    private void insertOrders(int orderCount, int itemsPerOrder, int memberCount, int itemCount) {
+        String deliverySql = "insert into delivery (delivery_id, city, street, zipcode, status) values (?, ?, ?, ?, ?)";
+        String orderSql = "insert into orders (order_id, member_id, delivery_id, order_date, status) values (?, ?, ?, ?, ?)";
+        String orderItemSql = "insert into order_item (order_item_id, order_id, item_id, order_price, count) values (?, ?, ?, ?, ?)";
+
+        List<Object[]> deliveries = new ArrayList<>(CHUNK);
+        List<Object[]> orders = new ArrayList<>(CHUNK);
+        List<Object[]> orderItems = new ArrayList<>(CHUNK * itemsPerOrder);
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        long orderItemId = ID_BASE;
+
+        for (int i = 0; i < orderCount; i++) {
+            long id = ID_BASE + i;
+            deliveries.add(new Object[]{id, "서울", "street" + i, "12345", "READY"});
+            orders.add(new Object[]{id, ID_BASE + (i % memberCount), id, Timestamp.valueOf(base.plusSeconds(i)), "ORDER"});
+            for (int j = 0; j < itemsPerOrder; j++) {
+                orderItems.add(new Object[]{orderItemId++, id, ID_BASE + ((i + j) % itemCount), 10_000, 1 + j});
+            }
+
+            if (orders.size() == CHUNK) {
+                flush(deliverySql, deliveries);
+                flush(orderSql, orders);
+                flush(orderItemSql, orderItems);
+            }
+        }
+        flush(deliverySql, deliveries);
+        flush(orderSql, orders);
+        flush(orderItemSql, orderItems);
+    }
+
+    private void flush(String sql, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        jdbc.batchUpdate(sql, rows);
+        rows.clear();
+    }
+}
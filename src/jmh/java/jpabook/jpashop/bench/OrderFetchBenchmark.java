@@ -0,0 +1,97 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.api.OrderApiController;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+/**
+ * OrderApiController 의 v1 ~ v6 주문 조회 전략 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=OrderFetchBenchmark
+ *
+ * - thrpt : 처리량
+ * - sample : 지연시간 분포 (p0.99)
+ * - gc.alloc.rate.norm : op당 할당 바이트
+ * - SQL 수행 횟수 : trial 시작 시 1회 실행해서 콘솔에 출력 (hibernate statistics)
+ *
+ * 주의
+ * - v1, v2 는 findAllByCriteria 의 최대 1000건 제한이 그대로 적용된다.
+ * - v3.1 은 pageSize 만큼 한 페이지만 조회한다. (페이징이 되는게 v3.1의 특징이므로)
+ * - v4 는 주문 수만큼 쿼리가 나가므로 100만건에서는 매우 오래 걸린다.
+ *
+ * 주문 수나 fan-out 만 바꿔서 돌리려면 -p 옵션 대신 아래 @Param 을 조정하거나
+ * java -jar build/libs/*-jmh.jar OrderFetchBenchmark -p orderCount=10000 -p itemsPerOrder=5
+ */
+@State(Scope.Benchmark)
+public class OrderFetchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    int orderCount;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"v1", "v2", "v3", "v3.1", "v4", "v5", "v6"})
+    String strategy;
+
+    @Param({"100"})
+    int pageSize;
+
+    private ConfigurableApplicationContext ctx;
+    private TransactionTemplate readOnlyTx;
+    private Supplier<Object> fetch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        new OrderDataSeeder(ctx.getBean(JdbcTemplate.class)).seed(orderCount, itemsPerOrder);
+
+        readOnlyTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        fetch = strategy(ctx.getBean(OrderApiController.class));
+
+        Statistics stats = BenchContext.statistics(ctx);
+        long before = stats.getPrepareStatementCount();
+        fetchOrders();
+        System.out.printf("%n[%s] orders=%d, itemsPerOrder=%d -> SQL statements per op: %d%n",
+                strategy, orderCount, itemsPerOrder, stats.getPrepareStatementCount() - before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object fetchOrders() {
+        // 매 호출마다 새로운 트랜잭션 = 새로운 영속성 컨텍스트
+        return readOnlyTx.execute(s -> fetch.get());
+    }
+
+    private Supplier<Object> strategy(OrderApiController c) {
+        switch (strategy) {
+            case "v1":
+                return c::ordersV1;
+            case "v2":
+                return c::orderV2;
+            case "v3":
+                return c::orderV3;
+            case "v3.1":
+                return () -> c.orderV3_page(0, pageSize);
+            case "v4":
+                return c::ordersV4;
+            case "v5":
+                return c::ordersV5;
+            case "v6":
+                return () -> c.ordersV6(null);
+            default:
+                throw new IllegalArgumentException("unknown strategy: " + strategy);
+        }
+    }
+}
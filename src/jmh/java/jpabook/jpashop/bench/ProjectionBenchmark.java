@@ -0,0 +1,102 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.repository.order.query.OrderFlatDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepoistory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * DTO 조회 : JPQL "select new" (row 마다 리플렉션 생성자 호출) vs 컬럼 조회 + TupleMapper
+ *
+ * ./gradlew jmh -PjmhIncludes=ProjectionBenchmark
+ *
+ * - flat : 주문 x 주문상품 조인 (OrderFlatDto, 주문수 x itemsPerOrder row)
+ * - simple : 주문 + 회원 + 배송 (OrderSimpleQueryDto, 주문수 row)
+ * - selectNew : 기존 JPQL 그대로 (비교용으로 여기서만 사용)
+ * - tupleMapper : OrderQueryRepository / OrderSimpleQueryRepoistory
+ * 초당 row 수 = thrpt(ops/s) x trial 시작 시 콘솔에 출력되는 op당 row 수
+ */
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+    @Param({"100000", "1000000"})
+    int orderCount;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"selectNew", "tupleMapper"})
+    String strategy;
+
+    @Param({"flat", "simple"})
+    String query;
+
+    private ConfigurableApplicationContext ctx;
+    private TransactionTemplate readOnlyTx;
+    private Supplier<List<?>> fetch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        new OrderDataSeeder(ctx.getBean(JdbcTemplate.class)).seed(orderCount, itemsPerOrder);
+
+        readOnlyTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        fetch = strategy();
+
+        System.out.printf("%n[%s/%s] orders=%d, itemsPerOrder=%d -> rows per op: %d%n",
+                strategy, query, orderCount, itemsPerOrder, fetchRows().size());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public List<?> fetchRows() {
+        // 매 호출마다 새로운 트랜잭션 = 새로운 영속성 컨텍스트
+        return readOnlyTx.execute(s -> fetch.get());
+    }
+
+    private Supplier<List<?>> strategy() {
+        EntityManager em = ctx.getBean(EntityManager.class);
+        OrderQueryRepository orderQueryRepo = ctx.getBean(OrderQueryRepository.class);
+        OrderSimpleQueryRepoistory simpleQueryRepo = ctx.getBean(OrderSimpleQueryRepoistory.class);
+
+        switch (strategy + "/" + query) {
+            case "selectNew/flat":
+                return () -> em.createQuery(
+                                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count) " +
+                                        "from Order o " +
+                                        "join o.member m " +
+                                        "join o.delivery d " +
+                                        "join o.orderItems oi " +
+                                        "join oi.item i " +
+                                        "order by o.id, oi.id", OrderFlatDto.class)
+                        .getResultList();
+            case "tupleMapper/flat":
+                return orderQueryRepo::findAllByDto_flat;
+            case "selectNew/simple":
+                return () -> em.createQuery(
+                                "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
+                                        " from Order o " +
+                                        " join o.member m " +
+                                        " join o.delivery d ", OrderSimpleQueryDto.class)
+                        .getResultList();
+            case "tupleMapper/simple":
+                return simpleQueryRepo::findOrderDtos;
+            default:
+                throw new IllegalArgumentException("unknown strategy : " + strategy + "/" + query);
+        }
+    }
+}
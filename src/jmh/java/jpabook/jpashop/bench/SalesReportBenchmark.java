@@ -0,0 +1,105 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * 일별 매출 조회 : Order.getTotalPrice() 를 자바에서 합산 vs 원본 SQL SUM vs 롤업 테이블
+ *
+ * ./gradlew jmh -PjmhIncludes=SalesReportBenchmark
+ *
+ * - OrderDataSeeder 의 주문은 2020-01-01 부터 1초 간격이므로 100만건이면 약 12일치
+ * - 전체 기간을 일별로 조회
+ * - javaTotalPrice : 주문과 orderItems 를 모두 읽어서 자바에서 합산 (batch fetch 가 켜져 있어도 order_item 전체를 읽음)
+ * - sqlSum : orders + order_item 을 SQL group by (SalesRollupRepository.findDailyFromSource)
+ * - rollup : sales_daily 만 읽음
+ * trial 시작 시 op당 SQL 수행 횟수를 콘솔에 출력
+ */
+@State(Scope.Benchmark)
+public class SalesReportBenchmark {
+
+    @Param({"100000", "1000000"})
+    int orderCount;
+
+    @Param({"2"})
+    int itemsPerOrder;
+
+    @Param({"javaTotalPrice", "sqlSum", "rollup"})
+    String strategy;
+
+    private static final LocalDate FROM = LocalDate.of(2020, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2020, 12, 31);
+
+    private ConfigurableApplicationContext ctx;
+    private TransactionTemplate readOnlyTx;
+    private Supplier<Object> fetch;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start();
+        new OrderDataSeeder(ctx.getBean(JdbcTemplate.class)).seed(orderCount, itemsPerOrder);
+        SalesRollupRepository salesRepo = ctx.getBean(SalesRollupRepository.class);
+        new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class)).execute(s -> salesRepo.rebuild());
+
+        readOnlyTx = new TransactionTemplate(ctx.getBean(PlatformTransactionManager.class));
+        readOnlyTx.setReadOnly(true);
+        fetch = strategy(salesRepo, ctx.getBean(EntityManager.class));
+
+        Statistics stats = BenchContext.statistics(ctx);
+        long before = stats.getPrepareStatementCount();
+        fetchDaily();
+        System.out.printf("%n[%s] orders=%d, itemsPerOrder=%d -> SQL statements per op: %d%n",
+                strategy, orderCount, itemsPerOrder, stats.getPrepareStatementCount() - before);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        ctx.close();
+    }
+
+    @Benchmark
+    public Object fetchDaily() {
+        // 매 호출마다 새로운 트랜잭션 = 새로운 영속성 컨텍스트
+        return readOnlyTx.execute(s -> fetch.get());
+    }
+
+    private Supplier<Object> strategy(SalesRollupRepository salesRepo, EntityManager em) {
+        switch (strategy) {
+            case "javaTotalPrice":
+                return () -> sumInJava(em);
+            case "sqlSum":
+                return () -> salesRepo.findDailyFromSource(FROM, TO, null);
+            case "rollup":
+                return () -> salesRepo.findDaily(FROM, TO, null);
+            default:
+                throw new IllegalArgumentException("unknown strategy : " + strategy);
+        }
+    }
+
+    /** 기존 방식 : 주문을 모두 읽어서 getTotalPrice() 를 일별로 합산 */
+    private Map<LocalDate, Long> sumInJava(EntityManager em) {
+        List<Order> orders = em.createQuery(
+                        "select o from Order o where o.orderDate >= :from and o.orderDate < :to", Order.class)
+                .setParameter("from", FROM.atStartOfDay())
+                .setParameter("to", TO.plusDays(1).atStartOfDay())
+                .getResultList();
+        Map<LocalDate, Long> revenue = new TreeMap<>();
+        for (Order o : orders) {
+            revenue.merge(o.getOrderDate().toLocalDate(), (long) o.getTotalPrice(), Long::sum);
+        }
+        return revenue;
+    }
+}
@@ -0,0 +1,81 @@
+package jpabook.jpashop.bench;
+
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.exception.StockUpdateConflictException;
+import jpabook.jpashop.service.OrderService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 인기 상품 1개에 동시 주문이 몰릴 때 재고 차감 전략 비교
+ *
+ * ./gradlew jmh -PjmhIncludes=StockDecrementBenchmark
+ *
+ * - thrpt : 초당 주문 수 (8 스레드 합계)
+ * - trial 종료시 콘솔에 oversell 출력
+ *   oversell = (주문된 수량 합계 + 남은 재고) - 초기 재고
+ *   0 보다 크면 lost update 로 재고보다 많이 팔린 것 -> trial 실패
+ * 정확성(oversell, 재시도 초과)은 StockManagerTest 에서 검증
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+public class StockDecrementBenchmark {
+    private static final long MEMBER_ID = OrderDataSeeder.ID_BASE;
+    private static final long ITEM_ID = OrderDataSeeder.ID_BASE;
+
+    @Param({"OPTIMISTIC", "PESSIMISTIC", "ATOMIC"})
+    String strategy;
+
+    @Param({"10000000"})
+    int initialStock;
+
+    private ConfigurableApplicationContext ctx;
+    private JdbcTemplate jdbc;
+    private OrderService orderService;
+
+    private final AtomicLong soldOut = new AtomicLong();
+    private final AtomicLong conflicts = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ctx = BenchContext.start("--jpashop.stock.strategy=" + strategy);
+        jdbc = ctx.getBean(JdbcTemplate.class);
+        orderService = ctx.getBean(OrderService.class);
+
+        jdbc.update("insert into member (member_id, name, city, street, zipcode) values (?, ?, ?, ?, ?)",
+                MEMBER_ID, "hot-buyer", "서울", "street", "12345");
+        jdbc.update("insert into item (item_id, dtype, name, price, stock_quantity, version) values (?, ?, ?, ?, ?, ?)",
+                ITEM_ID, "B", "hot item", 10_000, initialStock, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long sold = jdbc.queryForObject("select coalesce(sum(count), 0) from order_item where item_id = ?", Long.class, ITEM_ID);
+        long remaining = jdbc.queryForObject("select stock_quantity from item where item_id = ?", Long.class, ITEM_ID);
+        long oversell = sold + remaining - initialStock;
+        System.out.printf("%n[%s] sold=%d, remaining=%d, oversell=%d, soldOut=%d, conflicts=%d%n",
+                strategy, sold, remaining, oversell, soldOut.get(), conflicts.get());
+        ctx.close();
+        // 처리량이 좋아도 재고보다 많이 팔렸으면 의미가 없으므로 trial 을 실패시킨다.
+        if (oversell != 0 || remaining < 0) {
+            throw new IllegalStateException("oversell detected : " + strategy + " oversell=" + oversell);
+        }
+    }
+
+    @Benchmark
+    public Long order() {
+        try {
+            return orderService.order(MEMBER_ID, ITEM_ID, 1);
+        } catch (NotEnoughStockException e) {
+            soldOut.incrementAndGet();
+        } catch (StockUpdateConflictException | ConcurrencyFailureException e) {
+            // 재시도 초과, 락 대기 타임아웃 등
+            conflicts.incrementAndGet();
+        }
+        return null;
+    }
+}
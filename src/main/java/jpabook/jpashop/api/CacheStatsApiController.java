@@ -0,0 +1,68 @@
+package jpabook.jpashop.api;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 2차 캐시 리전별 통계
+ *
+ * JCache 표준 통계 MXBean (javax.cache:type=CacheStatistics) 을 읽어서 보여줌
+ * application.conf 의 monitoring 설정이 켜져 있어야 노출된다.
+ */
+@RestController
+public class CacheStatsApiController {
+    private static final String STATISTICS_PATTERN = "javax.cache:type=CacheStatistics,*";
+
+    @GetMapping("/api/admin/cache-stats")
+    public Result<List<CacheRegionStats>> cacheStats() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+        List<CacheRegionStats> collect = server.queryNames(new ObjectName(STATISTICS_PATTERN), null).stream()
+                .map(name -> toStats(server, name))
+                .sorted(Comparator.comparing(CacheRegionStats::getRegion))
+                .collect(Collectors.toList());
+        return new Result<>(collect.size(), collect);
+    }
+
+    private CacheRegionStats toStats(MBeanServer server, ObjectName name) {
+        try {
+            return new CacheRegionStats(
+                    name.getKeyProperty("Cache"),
+                    (Long) server.getAttribute(name, "CacheHits"),
+                    (Long) server.getAttribute(name, "CacheMisses"),
+                    (Long) server.getAttribute(name, "CachePuts"),
+                    (Long) server.getAttribute(name, "CacheEvictions"),
+                    (Float) server.getAttribute(name, "CacheHitPercentage"));
+        } catch (JMException e) {
+            throw new IllegalStateException("캐시 통계 조회 실패 : " + name, e);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CacheRegionStats {
+        private String region;
+        private long hits;
+        private long misses;
+        private long puts;
+        private long evictions;
+        private float hitPercentage;
+    }
+}
@@ -0,0 +1,51 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.category.query.CategoryItemQueryDto;
+import jpabook.jpashop.repository.category.query.CategoryItemQueryRepository;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class CategoryApiController {
+    private static final int MAX_LIMIT = 1000;
+
+    private final CategoryItemQueryRepository categoryItemQueryRepo;
+
+    /**
+     * 카테고리별 상품 목록 (상품 id 순)
+     *
+     * Category.items 를 그대로 꺼내면 카테고리의 모든 상품을 한번에 읽으므로 keyset 페이징으로 조회
+     * - 첫 페이지는 cursor 없이, 다음 페이지는 응답의 nextCursor 를 전달
+     * - limit 은 1 ~ MAX_LIMIT
+     */
+    @GetMapping("/api/categories/{id}/items")
+    public CategoryItemPage categoryItems(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<CategoryItemQueryDto> items = categoryItemQueryRepo.findCategoryItems(id, cursor, size + 1);
+
+        Long nextCursor = null;
+        if (items.size() > size) {
+            items = items.subList(0, size);
+            nextCursor = items.get(size - 1).getItemId();
+        }
+        return new CategoryItemPage(items, nextCursor);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class CategoryItemPage {
+        private List<CategoryItemQueryDto> data;
+        private Long nextCursor;
+    }
+}
@@ -0,0 +1,39 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.ReplicaRoutingDataSource;
+import jpabook.jpashop.config.ReplicaRoutingDataSource.TargetStatsDto;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 레플리카 라우팅 대상(primary, replica-N)별 커넥션 획득 수, SQL 수, 평균 실행시간
+ * jpashop.replica.enabled=false 면 빈 목록
+ */
+@RestController
+@RequiredArgsConstructor
+public class DataSourceStatsApiController {
+    private final DataSource dataSource;
+
+    @GetMapping("/api/admin/datasource-stats")
+    public Result<List<TargetStatsDto>> dataSourceStats() throws SQLException {
+        List<TargetStatsDto> stats = dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+                ? dataSource.unwrap(ReplicaRoutingDataSource.class).stats()
+                : Collections.emptyList();
+        return new Result<>(stats.size(), stats);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+}
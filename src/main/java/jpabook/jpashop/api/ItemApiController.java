@@ -0,0 +1,51 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.repository.ItemPriceStock;
+import jpabook.jpashop.service.ItemService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class ItemApiController {
+    private final ItemService itemSvc;
+
+    /**
+     * 가격/재고 일괄 변경 (야간 가격 재조정)
+     *
+     * 상품마다 조회 + 더티체킹하지 않고 jdbc batch update 로 처리 (ItemService.updatePriceAndStock 참고)
+     * 없는 상품 id 는 missingIds 로 알려주고 나머지는 반영된다.
+     */
+    @PutMapping("/api/items/price-stock")
+    public BulkUpdateItemResponse updatePriceAndStock(@RequestBody @Valid BulkUpdateItemRequest request) {
+        List<Long> missingIds = itemSvc.updatePriceAndStock(request.getItems());
+        long requested = request.getItems().stream().map(ItemPriceStock::getId).distinct().count();
+        return new BulkUpdateItemResponse(requested - missingIds.size(), missingIds);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class BulkUpdateItemRequest {
+        @NotEmpty
+        @Valid
+        private List<ItemPriceStock> items;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class BulkUpdateItemResponse {
+        private long updated;
+        private List<Long> missingIds;
+    }
+}
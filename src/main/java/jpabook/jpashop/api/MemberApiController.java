@@ -1,22 +1,41 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.config.ETagVersioned;
 import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.order.query.MemberOrderQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import jpabook.jpashop.service.MemberImportResult;
+import jpabook.jpashop.service.MemberImportService;
+import jpabook.jpashop.service.MemberImportService.Format;
 import jpabook.jpashop.service.MemberService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberApiController {
+    private static final String TEXT_CSV = "text/csv";
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
     private final MemberService memberSvc;
+    private final MemberImportService memberImportSvc;
+    private final OrderQueryRepository orderQueryRepo;
 
     /**
      * 엔티티를 그대로 리턴하면 불필요한 정보까지 노출되버림. (Order 등)
@@ -35,7 +54,11 @@ public class MemberApiController {
         return memberSvc.findMembers();
     }
 
+    /**
+     * 회원이 바뀌지 않았으면 If-None-Match 로 304 (조회, 직렬화 생략)
+     */
     @GetMapping("/api/v2/members")
+    @ETagVersioned(Aggregate.MEMBER)
     public Result memberV2() {
         List<Member> findMembers = memberSvc.findMembers();
         List<MemberDto> collect = findMembers.stream()
@@ -45,6 +68,32 @@ public class MemberApiController {
         return new Result(collect.size(), collect);
     }
 
+    /**
+     * 회원별 주문내역 (최신순)
+     *
+     * /api/v3.1/orders 의 cursor 모드와 같은 방식의 keyset 페이징
+     * - 첫 페이지는 cursor 없이, 다음 페이지는 응답의 nextCursor 를 전달
+     * - limit 은 1 ~ OrderCursor.MAX_LIMIT, 잘못된 cursor 는 400
+     */
+    @GetMapping("/api/members/{id}/orders")
+    @ETagVersioned(Aggregate.ORDER)
+    public MemberOrderPage memberOrders(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        OrderCursor.Page<MemberOrderQueryDto> page = OrderCursor.page(cursor, limit,
+                (c, size) -> orderQueryRepo.findMemberOrders(id, c, size),
+                o -> new OrderCursor(o.getOrderDate(), o.getOrderId()));
+        return new MemberOrderPage(page.getRows(), page.getNextCursor());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class MemberOrderPage {
+        private List<MemberOrderQueryDto> data;
+        private String nextCursor;
+    }
+
     @Data
     @AllArgsConstructor
     static class Result<T> {
@@ -77,6 +126,21 @@ public class MemberApiController {
         return new CreateMemberResponse(joinId);
     }
 
+    /**
+     * 대량 가입 - 본문을 통째로 받지 않고 스트림으로 읽으면서 청크 단위로 insert
+     * - text/csv : name,city,street,zipcode (첫 줄이 name 으로 시작하면 헤더로 보고 건너뜀)
+     * - application/x-ndjson : 한 줄에 {"name":..,"city":..,"street":..,"zipcode":..} 하나
+     * 잘못된 줄은 응답의 errors 로 알려주고 나머지는 가입된다.
+     */
+    @PostMapping(value = "/api/members/import", consumes = {TEXT_CSV, APPLICATION_NDJSON})
+    public MemberImportResult importMembers(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                            InputStream body) throws IOException {
+        Format format = contentType.isCompatibleWith(MediaType.valueOf(TEXT_CSV)) ? Format.CSV : Format.NDJSON;
+        // charset 이 없으면 UTF-8 (엑셀에서 내보낸 CSV 는 text/csv;charset=MS949 등으로 보내야 한다)
+        Charset charset = contentType.getCharset() != null ? contentType.getCharset() : StandardCharsets.UTF_8;
+        return memberImportSvc.importMembers(body, format, charset);
+    }
+
     /** 생성과 수정은 범위가 다르므로 dto도 분리하는게 좋다 */
     @PutMapping("/api/v2/members/{id}")
     public UpdateMemberResponse updateMemberV2(
@@ -1,21 +1,36 @@
 package jpabook.jpashop.api;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.config.ETagVersioned;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.order.query.OrderFlatAssembler;
 import jpabook.jpashop.repository.order.query.OrderFlatDto;
-import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryDto;
 import jpabook.jpashop.repository.order.query.OrderQueryRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import jpabook.jpashop.service.BulkOrderDto;
+import jpabook.jpashop.service.OrderService;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,8 +40,12 @@ import static java.util.stream.Collectors.*;
 @RestController
 @RequiredArgsConstructor
 public class OrderApiController {
+    private static final String NDJSON = "application/x-ndjson";
+
     private final OrderRepository orderRepo;
     private final OrderQueryRepository orderQueryRepo;
+    private final ObjectMapper objectMapper;
+    private final OrderService orderSvc;
 
     /**
      * entity를 직접 노출하는 안 좋은 API
@@ -53,6 +72,7 @@ public class OrderApiController {
      * 컬렉션이 있어 연쇄적으로 더 많이 발생
      */
     @GetMapping("/api/v2/orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
     public List<OrderDto> orderV2() {
         List<Order> orders = orderRepo.findAllByCriteria(new OrderSearch());
         List<OrderDto> collect = orders.stream()
@@ -67,6 +87,7 @@ public class OrderApiController {
      * (정확히는 성능상 하면 안 됨)
      */
     @GetMapping("/api/v3/orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
     public List<OrderDto> orderV3() {
         List<Order> orders = orderRepo.findAllWithIthem();
         List<OrderDto> collect = orders.stream()
@@ -102,22 +123,49 @@ public class OrderApiController {
      * </pre>
      */
     @GetMapping("/api/v3.1/orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
     public List<OrderDto> orderV3_page(
             @RequestParam(defaultValue = "0") int offset,
             @RequestParam(defaultValue = "100") int limit) {
-        List<Order> orders = orderRepo.findAllWithMemberDelivery(offset, limit);
+        List<Order> orders = orderRepo.findAllWithMemberDelivery(Math.max(0, offset), OrderCursor.clampLimit(limit));
         List<OrderDto> collect = orders.stream()
                 .map(o -> new OrderDto(o))
                 .collect(toList());
         return collect;
     }
 
+    /**
+     * v3.1 의 keyset 페이징 모드 (cursor 파라미터가 있으면 이쪽으로 매핑)
+     *
+     * offset 대신 이전 응답의 nextCursor 를 넘겨서 다음 페이지를 조회
+     * - 첫 페이지는 cursor= (빈값)
+     * - 마지막 페이지면 nextCursor 는 null
+     *
+     * limit + 1 건을 조회해서 다음 페이지 존재여부를 판단한다. (OrderCursor.page)
+     * limit 은 1 ~ OrderCursor.MAX_LIMIT, 잘못된 cursor 는 400
+     */
+    @GetMapping(value = "/api/v3.1/orders", params = "cursor")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    public OrderPage orderV3_cursor(
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        OrderCursor.Page<Order> page = OrderCursor.page(cursor, limit,
+                orderRepo::findAllWithMemberDelivery,
+                o -> new OrderCursor(o.getOrderDate(), o.getId()));
+
+        List<OrderDto> collect = page.getRows().stream()
+                .map(o -> new OrderDto(o))
+                .collect(toList());
+        return new OrderPage(collect, page.getNextCursor());
+    }
+
     /**
      * JPQL 레벨에서 바로 DTO로 조회
      *
      * 하지만 컬렉션을 N번에 걸쳐 쿼리하므로 N+1 발생
      */
     @GetMapping("/api/v4/orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
     public List<OrderQueryDto> ordersV4() {
         return orderQueryRepo.findOrderQueryDtos();
     }
@@ -129,6 +177,7 @@ public class OrderApiController {
      * 대신 필요한 필드만 select하므로 트래픽이 줄어드는 효과가 있음 (트레이드 오프)
      */
     @GetMapping("/api/v5/orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
     public List<OrderQueryDto> ordersV5() {
         return orderQueryRepo.findAllByDto_optimization();
     }
@@ -143,21 +192,97 @@ public class OrderApiController {
      * 단점
      * 1. 쿼리는 1번이지만 조인으로 인해 중복 데이터를 얻어오므로 조건에 따라 더 느릴 수 있음
      * 2. 애플리케이션에서 중복을 제거하고 소팅하고 API 스펙에 맞춰 매핑하는등 추가작업이 많음
-     *   - 아래 예제에서도 OrderFlatDto -> OrderQueryDto 로 변환하기 위해 복잡한 변경작업이 필요함
-     * 3. 페이징이 불가능함 (1:N 조인하면서 데이터 양이 불어나니까)
+     *   - 처음엔 groupingBy 로 묶었는데 row 마다 키 DTO 를 만들어 해싱하고 순서도 깨졌음
+     *   - 지금은 o.id 로 정렬해서 받고 OrderFlatAssembler 로 한 번에 순서대로 묶음
+     * 3. DB 페이징이 불가능함 (1:N 조인하면서 데이터 양이 불어나니까)
+     *   - 대신 limit 을 주면 주문 수 기준으로 앞에서부터 끊어서 읽고 멈춤 (offset 은 여전히 불가)
      */
     @GetMapping("/api/v6/orders")
-    public List<OrderQueryDto> ordersV6() {
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    public List<OrderQueryDto> ordersV6(@RequestParam(required = false) Integer limit) {
+        if (limit != null) {
+            return orderQueryRepo.findAllByDto_flat(limit);
+        }
+
         List<OrderFlatDto> flats = orderQueryRepo.findAllByDto_flat();
+        return OrderFlatAssembler.assemble(flats.iterator(), Integer.MAX_VALUE);
+    }
 
-        return flats.stream()
-                .collect(groupingBy(o -> new OrderQueryDto(o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress()),
-                        mapping(o -> new OrderItemQueryDto(o.getOrderId(), o.getItemName(), o.getOrderPrice(), o.getCount()), toList())
-                )).entrySet().stream()
-                .map(e -> new OrderQueryDto(e.getKey().getOrderId(), e.getKey().getName(), e.getKey().getOrderDate(), e.getKey().getOrderStatus(), e.getKey().getAddress(), e.getValue()))
+    /**
+     * 주문 검색 (회원명 앞부분 일치, 상태, 주문일시 범위, 상품)
+     *
+     * 조건 조합별로 JPQL 을 한 번만 만들어서 재사용 (OrderRepository.findAll)
+     * 최신 주문부터 offset/limit 페이징, limit 은 최대 1000
+     * 컬렉션(orderItems)은 batch fetch 로 가져온다.
+     */
+    @GetMapping("/api/orders/search")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER, Aggregate.ITEM})
+    public List<OrderDto> searchOrders(@ModelAttribute OrderSearch orderSearch) {
+        return orderSvc.searchOrders(orderSearch).stream()
+                .map(o -> new OrderDto(o))
                 .collect(toList());
     }
 
+    /**
+     * 전체 주문 export (NDJSON : 한 줄에 주문 1건)
+     *
+     * v5, v6 처럼 List 로 다 모은 뒤 직렬화하면 주문 테이블이 커질수록 OOM 이 난다.
+     * 대신 StatelessSession scroll 로 읽는 즉시 한건씩 응답 스트림에 써서 힙 사용량을 일정하게 유지한다.
+     * StreamingResponseBody 는 요청 스레드가 아닌 별도 스레드에서 실행된다. (spring.mvc.async.request-timeout 참고)
+     */
+    @GetMapping(value = "/api/orders/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> exportOrders() {
+        // produces 만으로는 StreamingResponseBody 의 Content-Type 이 정해지지 않으므로 직접 지정 (CompressionFilter 도 이걸 보고 압축)
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(out -> {
+            try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+                gen.setRootValueSeparator(new SerializedString("\n"));
+                orderQueryRepo.streamAllByDto_flat(o -> {
+                    try {
+                        gen.writeObject(o);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeRaw('\n');
+            }
+        });
+    }
+
+    /**
+     * 대량 주문 (B2B)
+     *
+     * 주문 수천건을 한 번에 받아 in 쿼리와 jdbc batch insert 로 처리 (OrderService.orderBulk 참고)
+     */
+    @PostMapping("/api/orders/bulk")
+    public BulkOrderResponse orderBulk(@RequestBody @Valid BulkOrderRequest request) {
+        List<Long> orderIds = orderSvc.orderBulk(request.getOrders());
+        return new BulkOrderResponse(orderIds.size(), orderIds);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class BulkOrderRequest {
+        @NotEmpty
+        @Valid
+        private List<BulkOrderDto> orders;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static class BulkOrderResponse {
+        private int count;
+        private List<Long> orderIds;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class OrderPage {
+        private List<OrderDto> data;
+        private String nextCursor;
+    }
+
     @Data
     static class OrderDto {
         private Long orderId;
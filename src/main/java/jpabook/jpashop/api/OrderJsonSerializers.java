@@ -0,0 +1,192 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.api.OrderApiController.OrderItemDto;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 주문 DTO 전용 직렬화 (DtoJsonConfig 의 fast path 에서만 사용)
+ *
+ * 기본 BeanSerializer 는 프로퍼티마다 리플렉션 getter 호출 + 타입별 serializer 조회를 하고
+ * Hibernate5Module 은 모든 프로퍼티 값이 프록시인지 검사한다.
+ * 주문 목록처럼 수만건을 내려주는 DTO 는 필드를 직접 순서대로 쓴다. (필드명도 미리 인코딩)
+ *
+ * 출력은 기본 ObjectMapper 와 같아야 하므로 DTO 필드를 바꾸면 여기도 같이 고친다. (OrderJsonSerializersTest)
+ */
+public final class OrderJsonSerializers {
+    private static final SerializableString ORDER_ID = new SerializedString("orderId");
+    private static final SerializableString NAME = new SerializedString("name");
+    private static final SerializableString ORDER_DATE = new SerializedString("orderDate");
+    private static final SerializableString ORDER_STATUS = new SerializedString("orderStatus");
+    private static final SerializableString ADDRESS = new SerializedString("address");
+    private static final SerializableString ORDER_ITEMS = new SerializedString("orderItems");
+    private static final SerializableString ITEM_NAME = new SerializedString("itemName");
+    private static final SerializableString ORDER_PRICE = new SerializedString("orderPrice");
+    private static final SerializableString COUNT = new SerializedString("count");
+    private static final SerializableString CITY = new SerializedString("city");
+    private static final SerializableString STREET = new SerializedString("street");
+    private static final SerializableString ZIPCODE = new SerializedString("zipcode");
+
+    private static final Set<Class<?>> TYPES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            OrderDto.class, OrderItemDto.class, OrderQueryDto.class, OrderItemQueryDto.class)));
+
+    private OrderJsonSerializers() {
+    }
+
+    /** 전용 serializer 가 있는 (엔티티를 참조하지 않는) DTO 타입 */
+    public static Set<Class<?>> types() {
+        return TYPES;
+    }
+
+    public static SimpleModule module() {
+        SimpleModule module = new SimpleModule("OrderJsonSerializers");
+        module.addSerializer(OrderDto.class, new OrderDtoSerializer());
+        module.addSerializer(OrderItemDto.class, new OrderItemDtoSerializer());
+        module.addSerializer(OrderQueryDto.class, new OrderQueryDtoSerializer());
+        module.addSerializer(OrderItemQueryDto.class, new OrderItemQueryDtoSerializer());
+        return module;
+    }
+
+    static class OrderDtoSerializer extends StdSerializer<OrderDto> {
+        OrderDtoSerializer() {
+            super(OrderDto.class);
+        }
+
+        @Override
+        public void serialize(OrderDto o, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeOrderFields(gen, o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress());
+            gen.writeFieldName(ORDER_ITEMS);
+            List<OrderItemDto> items = o.getOrderItems();
+            if (items == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray();
+                for (OrderItemDto item : items) {
+                    gen.writeStartObject();
+                    writeItemFields(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+                    gen.writeEndObject();
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemDtoSerializer extends StdSerializer<OrderItemDto> {
+        OrderItemDtoSerializer() {
+            super(OrderItemDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemDto item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeItemFields(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderQueryDtoSerializer extends StdSerializer<OrderQueryDto> {
+        OrderQueryDtoSerializer() {
+            super(OrderQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderQueryDto o, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            gen.writeStartObject();
+            writeOrderFields(gen, o.getOrderId(), o.getName(), o.getOrderDate(), o.getOrderStatus(), o.getAddress());
+            gen.writeFieldName(ORDER_ITEMS);
+            List<OrderItemQueryDto> items = o.getOrderItems();
+            if (items == null) {
+                gen.writeNull();
+            } else {
+                gen.writeStartArray();
+                for (OrderItemQueryDto item : items) {
+                    writeOrderItemQuery(gen, item);
+                }
+                gen.writeEndArray();
+            }
+            gen.writeEndObject();
+        }
+    }
+
+    static class OrderItemQueryDtoSerializer extends StdSerializer<OrderItemQueryDto> {
+        OrderItemQueryDtoSerializer() {
+            super(OrderItemQueryDto.class);
+        }
+
+        @Override
+        public void serialize(OrderItemQueryDto item, JsonGenerator gen, SerializerProvider provider) throws IOException {
+            writeOrderItemQuery(gen, item);
+        }
+    }
+
+    private static void writeOrderItemQuery(JsonGenerator gen, OrderItemQueryDto item) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName(ORDER_ID);
+        writeLong(gen, item.getOrderId());
+        writeItemFields(gen, item.getItemName(), item.getOrderPrice(), item.getCount());
+        gen.writeEndObject();
+    }
+
+    private static void writeOrderFields(JsonGenerator gen, Long orderId, String name, LocalDateTime orderDate,
+                                         OrderStatus orderStatus, Address address) throws IOException {
+        gen.writeFieldName(ORDER_ID);
+        writeLong(gen, orderId);
+        gen.writeFieldName(NAME);
+        gen.writeString(name);
+        gen.writeFieldName(ORDER_DATE);
+        // JavaTimeModule 기본값과 같은 형식 (WRITE_DATES_AS_TIMESTAMPS 꺼진 상태)
+        gen.writeString(orderDate == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(orderDate));
+        gen.writeFieldName(ORDER_STATUS);
+        gen.writeString(orderStatus == null ? null : orderStatus.name());
+        gen.writeFieldName(ADDRESS);
+        if (address == null) {
+            gen.writeNull();
+        } else {
+            gen.writeStartObject();
+            gen.writeFieldName(CITY);
+            gen.writeString(address.getCity());
+            gen.writeFieldName(STREET);
+            gen.writeString(address.getStreet());
+            gen.writeFieldName(ZIPCODE);
+            gen.writeString(address.getZipcode());
+            gen.writeEndObject();
+        }
+    }
+
+    private static void writeItemFields(JsonGenerator gen, String itemName, int orderPrice, int count) throws IOException {
+        gen.writeFieldName(ITEM_NAME);
+        gen.writeString(itemName);
+        gen.writeFieldName(ORDER_PRICE);
+        gen.writeNumber(orderPrice);
+        gen.writeFieldName(COUNT);
+        gen.writeNumber(count);
+    }
+
+    private static void writeLong(JsonGenerator gen, Long value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package jpabook.jpashop.api;
 
+import jpabook.jpashop.config.ETagVersioned;
 import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.OrderCursor;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
 import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryRepoistory;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import jpabook.jpashop.service.OrderService;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
@@ -29,6 +36,8 @@ import java.util.stream.Collectors;
 public class OrderSimpleApiController {
     private final OrderRepository orderRepo;
     private final OrderSimpleQueryRepoistory orderSimpleRepo;
+    private final OrderSummaryRepository orderSummaryRepo;
+    private final OrderService orderSvc;
 
     /**
      * 첫번째 문제 : 무한 참조 발생 - StackOverflowError 발생!
@@ -63,6 +72,7 @@ public class OrderSimpleApiController {
     }
 
     @GetMapping("/api/v2/simple-orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER})
     public List<SimpleOrderDto> ordersV2() {
         // ORDER 2개 -> N이 2
         // N+1문제 -> order1번, 회원2번, 배송지2번 -> 5번
@@ -81,6 +91,7 @@ public class OrderSimpleApiController {
      * fetch join 적용
      */
     @GetMapping("/api/v3/simple-orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER})
     public List<SimpleOrderDto> ordersV3() {
         // 쿼리가 1번만 나감
         List<Order> findOrders = orderRepo.findAllWithMemberDelivery();
@@ -94,10 +105,51 @@ public class OrderSimpleApiController {
      * DTO로 바로 얻기
      * */
     @GetMapping("/api/v4/simple-orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER})
     public List<OrderSimpleQueryDto> ordersV4() {
         return orderSimpleRepo.findOrderDtos();
     }
 
+    /**
+     * 읽기 모델(order_summary) 조회
+     *
+     * v3, v4 는 매번 orders, member, delivery 를 조인하지만
+     * 주문시점에 미리 비정규화해둔 order_summary 한 테이블만 인덱스 순서대로 읽는다. (keyset 페이징)
+     * - 첫 페이지는 cursor 없이, 다음 페이지는 응답의 nextCursor 를 전달
+     * - limit 은 1 ~ OrderCursor.MAX_LIMIT, 잘못된 cursor 는 400
+     */
+    @GetMapping("/api/v5/simple-orders")
+    @ETagVersioned({Aggregate.ORDER, Aggregate.MEMBER})
+    public SimpleOrderPage ordersV5(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "100") int limit) {
+        OrderCursor.Page<OrderSimpleQueryDto> page = OrderCursor.page(cursor, limit,
+                orderSummaryRepo::findPage,
+                o -> new OrderCursor(o.getOrderDate(), o.getOrderId()));
+        return new SimpleOrderPage(page.getRows(), page.getNextCursor());
+    }
+
+    /**
+     * order_summary 전체 재생성 (읽기 모델이 원본과 어긋났을 때)
+     */
+    @PostMapping("/api/admin/order-summary/rebuild")
+    public RebuildResponse rebuildOrderSummary() {
+        return new RebuildResponse(orderSvc.rebuildOrderSummaries());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SimpleOrderPage {
+        private List<OrderSimpleQueryDto> data;
+        private String nextCursor;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int rows;
+    }
+
     /**
     * 이 dto 자체가 API 스펙이 된다.
      * 필요한 최소한의 필드만 가지도록한다.
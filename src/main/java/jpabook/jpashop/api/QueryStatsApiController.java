@@ -0,0 +1,34 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.QueryCountInterceptor;
+import jpabook.jpashop.config.QueryCountInterceptor.QueryStats;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 핸들러 메서드별 요청당 SQL 실행 횟수 통계 (평균이 많은 순)
+ * 응답마다 X-Query-Count 헤더로도 확인할 수 있다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class QueryStatsApiController {
+    private final QueryCountInterceptor queryCountInterceptor;
+
+    @GetMapping("/api/admin/query-stats")
+    public Result<List<QueryStats>> queryStats() {
+        List<QueryStats> stats = queryCountInterceptor.stats();
+        return new Result<>(stats.size(), stats);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+}
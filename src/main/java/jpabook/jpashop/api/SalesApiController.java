@@ -0,0 +1,80 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.sales.SalesDailyDto;
+import jpabook.jpashop.repository.sales.SalesItemDto;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
+import jpabook.jpashop.service.SalesRollupService;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 매출 조회
+ *
+ * Order.getTotalPrice() 로 계산하면 주문마다 orderItems 를 모두 읽어야하므로
+ * 주문/취소 때 갱신해둔 롤업 테이블만 읽는다. (기간 내 일수 x 상태수 row)
+ * live=true 면 원본(orders + order_item)을 SQL SUM 으로 집계 - 롤업 검증용, 기간이 길면 느리다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SalesApiController {
+    private static final int MAX_ITEM_LIMIT = 100;
+
+    private final SalesRollupRepository salesRepo;
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/api/sales/daily")
+    public Result<List<SalesDailyDto>> daily(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(defaultValue = "false") boolean live) {
+        List<SalesDailyDto> collect = live
+                ? salesRepo.findDailyFromSource(from, to, status)
+                : salesRepo.findDaily(from, to, status);
+        return new Result<>(collect.size(), collect);
+    }
+
+    /** 기간 내 매출 상위 상품 */
+    @GetMapping("/api/sales/items")
+    public Result<List<SalesItemDto>> topItems(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "ORDER") OrderStatus status,
+            @RequestParam(defaultValue = "10") int limit,
+            @RequestParam(defaultValue = "false") boolean live) {
+        int size = Math.max(1, Math.min(limit, MAX_ITEM_LIMIT));
+        List<SalesItemDto> collect = live
+                ? salesRepo.findTopItemsFromSource(from, to, status, size)
+                : salesRepo.findTopItems(from, to, status, size);
+        return new Result<>(collect.size(), collect);
+    }
+
+    /** 롤업 전체 재생성 (원본에서 다시 집계) */
+    @PostMapping("/api/admin/sales/rebuild")
+    public RebuildResponse rebuild() {
+        return new RebuildResponse(salesRollupService.rebuild());
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class Result<T> {
+        private int count;
+        private T data;
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class RebuildResponse {
+        private int rows;
+    }
+}
@@ -0,0 +1,42 @@
+package jpabook.jpashop.api;
+
+import jpabook.jpashop.config.SqlSampleRecorder;
+import jpabook.jpashop.config.SqlSampleRecorder.SlowQuery;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 샘플링된 SQL 중 느린 쿼리 top-k (fingerprint 별, 최대 실행시간 순)
+ * jpashop.sql-sampling.enabled=true 일 때만 기록된다.
+ */
+@RestController
+@RequiredArgsConstructor
+public class SlowQueryApiController {
+    private static final int MAX_K = 100;
+
+    private final SqlSampleRecorder recorder;
+
+    /**
+     * k 는 1 ~ MAX_K
+     */
+    @GetMapping("/api/admin/slow-queries")
+    public SlowQueryReport slowQueries(@RequestParam(defaultValue = "10") int k) {
+        int size = Math.max(1, Math.min(k, MAX_K));
+        List<SlowQuery> top = recorder.topSlowQueries(size);
+        return new SlowQueryReport(recorder.recordedCount(), top.size(), top);
+    }
+
+    @Data
+    @AllArgsConstructor
+    static class SlowQueryReport {
+        private long recorded;
+        private int count;
+        private List<SlowQuery> data;
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * 바이너리 응답 포맷 (Accept 헤더로 선택)
+ * - application/x-jackson-smile : JSON 과 같은 데이터 모델의 바이너리 인코딩, 반복되는 필드명/문자열을 back reference 로 압축
+ * - application/cbor : RFC 8949, jackson 이외의 클라이언트도 읽을 수 있음
+ *
+ * 스프링은 클래스패스에 smile/cbor 가 있으면 기본 컨버터를 만들어주지만 Hibernate5Module 등 부트 설정이 빠진 ObjectMapper 를 쓴다.
+ * 부트의 Jackson2ObjectMapperBuilder (prototype) 로 만들어서 bean 으로 등록하면 기본 컨버터를 대체한다. (HttpMessageConverters)
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+}
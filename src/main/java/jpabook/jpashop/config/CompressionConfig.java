@@ -0,0 +1,30 @@
+package jpabook.jpashop.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+
+import java.util.List;
+
+/**
+ * API 응답 압축 (CompressionFilter 참고)
+ * 톰캣 압축(server.compression)은 켜지 않는다. (켜더라도 Content-Encoding 이 이미 있으면 톰캣은 건너뛰므로 이중 압축은 안 됨)
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.compression", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CompressionConfig {
+
+    @Bean
+    public FilterRegistrationBean<CompressionFilter> compressionFilter(
+            @Value("${jpashop.compression.min-size:2048}") int minSize,
+            @Value("${jpashop.compression.mime-types:application/json,application/*+json,application/x-ndjson,application/x-jackson-smile,application/cbor}")
+                    List<String> mimeTypes) {
+        FilterRegistrationBean<CompressionFilter> registration =
+                new FilterRegistrationBean<>(new CompressionFilter(minSize, MediaType.parseMediaTypes(mimeTypes)));
+        registration.addUrlPatterns("/api/*");
+        return registration;
+    }
+}
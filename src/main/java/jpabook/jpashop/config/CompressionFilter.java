@@ -0,0 +1,397 @@
+package jpabook.jpashop.config;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 응답 압축 (Accept-Encoding : gzip, deflate)
+ *
+ * 톰캣의 server.compression 은 Content-Length 를 모르는 응답(json 은 대부분 chunked)이면 크기와 상관없이 압축하고 deflate 는 지원하지 않는다.
+ * 여기서는 처음 minSize 바이트까지는 버퍼에 모아두고
+ * - minSize 를 넘으면 : 압축 시작 (작은 응답은 압축해도 줄어드는 양보다 CPU 비용, 헤더 오버헤드가 더 큼)
+ * - 넘기 전에 flush/종료 : 버퍼를 그대로 보낸다.
+ *
+ * 압축하면 ETag 를 weak(W/) 로 바꾼다. (nginx 와 같은 방식, If-None-Match 는 weak 비교라 그대로 304 가 된다)
+ * StreamingResponseBody 같은 async 응답은 async 가 끝날 때 압축 스트림을 마무리한다.
+ * non-blocking 쓰기(setWriteListener)는 실제 스트림에 리스너를 넘기고, 아직 압축을 시작하기 전이면 압축하지 않는다.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+    private static final String GZIP = "gzip";
+    private static final String DEFLATE = "deflate";
+
+    private final int minSize;
+    private final List<MediaType> mimeTypes;
+
+    public CompressionFilter(int minSize, List<MediaType> mimeTypes) {
+        this.minSize = minSize;
+        this.mimeTypes = mimeTypes;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        String coding = negotiate(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        if (coding == null || "HEAD".equals(request.getMethod())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        CompressingResponse compressing = new CompressingResponse(response, coding);
+        chain.doFilter(request, compressing);
+
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) throws IOException {
+                    compressing.finish();
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                    finishQuietly(compressing);
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                    finishQuietly(compressing);
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+        } else {
+            compressing.finish();
+        }
+    }
+
+    /**
+     * async 가 타임아웃/에러로 끝나도 압축 스트림은 마무리한다. (Deflater 의 네이티브 메모리 반환)
+     * 이 시점엔 클라이언트가 이미 끊겼을 수 있으므로 쓰기 실패는 무시
+     */
+    private static void finishQuietly(CompressingResponse compressing) {
+        try {
+            compressing.finish();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * @return gzip, deflate 또는 null (압축 안 함). 둘 다 되면 gzip
+     */
+    static String negotiate(String acceptEncoding) {
+        if (!StringUtils.hasText(acceptEncoding)) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String name = tokens[0].trim().toLowerCase();
+            if (isRejected(tokens)) {
+                continue;
+            }
+            if (GZIP.equals(name) || "*".equals(name)) {
+                return GZIP;
+            }
+            if (DEFLATE.equals(name)) {
+                deflate = true;
+            }
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    /** q=0 이면 거부 */
+    private static boolean isRejected(String[] tokens) {
+        for (int i = 1; i < tokens.length; i++) {
+            String param = tokens[i].trim();
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType type;
+        try {
+            type = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            // 핸들러가 잘못된 Content-Type 을 줬으면 압축하지 않고 그대로 보낸다.
+            return false;
+        }
+        return mimeTypes.stream().anyMatch(m -> m.includes(type));
+    }
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+        private final String coding;
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response, String coding) {
+            super(response);
+            this.coding = coding;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() has already been called");
+            }
+            return stream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (stream != null) {
+                    throw new IllegalStateException("getOutputStream() has already been called");
+                }
+                writer = new PrintWriter(new OutputStreamWriter(stream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        private CompressingOutputStream stream() {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this);
+            }
+            return stream;
+        }
+
+        // 압축하면 길이가 달라지므로 Content-Length 는 내보내지 않는다. (chunked)
+        @Override
+        public void setContentLength(int len) {
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            } else if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void resetBuffer() {
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+            super.resetBuffer();
+        }
+
+        @Override
+        public void reset() {
+            if (stream != null) {
+                stream.resetBuffer();
+            }
+            super.reset();
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+
+        /** minSize 를 넘었을 때 압축할지 - 응답이 이미 인코딩되어 있으면 건드리지 않는다. */
+        boolean startCompression() {
+            if (isCommitted() || getHeader(HttpHeaders.CONTENT_ENCODING) != null || !isCompressible(getContentType())) {
+                return false;
+            }
+            super.setHeader(HttpHeaders.CONTENT_ENCODING, coding);
+            String etag = getHeader(HttpHeaders.ETAG);
+            if (etag != null && !etag.startsWith("W/")) {
+                super.setHeader(HttpHeaders.ETAG, "W/" + etag);
+            }
+            return true;
+        }
+
+        OutputStream compress(OutputStream raw) throws IOException {
+            if (GZIP.equals(coding)) {
+                return new GZIPOutputStream(raw, 8192, true);
+            }
+            return new DeflaterOutputStream(raw, new Deflater(Deflater.DEFAULT_COMPRESSION), 8192, true) {
+                @Override
+                public void close() throws IOException {
+                    super.close();
+                    def.end();
+                }
+            };
+        }
+    }
+
+    /**
+     * 처음 minSize 바이트는 버퍼에 모았다가 압축 여부를 정한다.
+     * async 타임아웃/에러 때는 컨테이너 스레드가 finish 하는 동안 작업 스레드가 아직 쓰고 있을 수 있어서 쓰기/마무리는 synchronized
+     */
+    private class CompressingOutputStream extends ServletOutputStream {
+        private final CompressingResponse response;
+        private byte[] buffer = new byte[Math.min(minSize, 8192)];
+        private int count;
+        private ServletOutputStream raw;
+        private OutputStream target;
+        private boolean compressing;
+        private boolean finished;
+
+        CompressingOutputStream(CompressingResponse response) {
+            this.response = response;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) throws IOException {
+            if (finished) {
+                throw new IOException("response already finished");
+            }
+            if (target == null) {
+                if (count + len <= minSize) {
+                    ensureCapacity(count + len);
+                    System.arraycopy(b, off, buffer, count, len);
+                    count += len;
+                    return;
+                }
+                start(true);
+            }
+            target.write(b, off, len);
+        }
+
+        private void ensureCapacity(int size) {
+            if (size > buffer.length) {
+                byte[] grown = new byte[Math.min(minSize, Math.max(size, buffer.length * 2))];
+                System.arraycopy(buffer, 0, grown, 0, count);
+                buffer = grown;
+            }
+        }
+
+        /** 압축 여부 결정 후 버퍼에 모아둔 내용을 내보낸다. */
+        private void start(boolean overMinSize) throws IOException {
+            raw = response.getResponse().getOutputStream();
+            compressing = overMinSize && response.startCompression();
+            target = compressing ? response.compress(raw) : raw;
+            if (count > 0) {
+                target.write(buffer, 0, count);
+            }
+            buffer = null;
+        }
+
+        /** minSize 전에 flush 하면 압축하지 않고 그대로 보낸다. */
+        @Override
+        public synchronized void flush() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (target == null) {
+                start(false);
+            }
+            target.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            finish();
+        }
+
+        synchronized void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (target == null) {
+                start(false);
+            }
+            finished = true;
+            if (compressing) {
+                // gzip trailer 까지 쓰고 하위 스트림도 닫힌다.
+                target.close();
+            } else {
+                target.flush();
+            }
+        }
+
+        void resetBuffer() {
+            if (target == null) {
+                count = 0;
+            }
+        }
+
+        /** 버퍼에 모으는 동안은 블록될 일이 없고, 그 뒤로는 실제 스트림 상태를 따른다. */
+        @Override
+        public boolean isReady() {
+            return raw == null || raw.isReady();
+        }
+
+        /**
+         * non-blocking 쓰기는 실제 스트림에 리스너를 넘긴다.
+         * minSize 까지 모으는 동안은 onWritePossible 시점을 맞출 수 없으므로
+         * 아직 압축을 시작하지 않았으면 모아둔 내용만 내보내고 압축 없이 그대로 쓴다. (리스너 등록 전이라 블로킹 쓰기 가능)
+         * 이미 압축 중이면 압축 스트림을 계속 쓰고 isReady 는 실제 스트림을 따른다.
+         */
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            if (target == null) {
+                try {
+                    start(false);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            raw.setWriteListener(writeListener);
+        }
+    }
+}
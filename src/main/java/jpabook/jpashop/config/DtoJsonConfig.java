@@ -0,0 +1,26 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.api.OrderJsonSerializers;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * 주문 DTO 응답 JSON fast path (opt-in : jpashop.json.fast-path.enabled=true)
+ *
+ * OrderJsonSerializers.types() 를 반환하는 API 만 DtoJsonHttpMessageConverter 가 가로채서 쓴다.
+ * 그 외 응답(엔티티를 그대로 내려주는 v1 등)은 기존 컨버터 + Hibernate5Module 로 처리된다.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "jpashop.json.fast-path", name = "enabled", havingValue = "true")
+public class DtoJsonConfig implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // 기본 jackson 컨버터보다 먼저 검사되도록 맨 앞에
+        converters.add(0, new DtoJsonHttpMessageConverter(OrderJsonSerializers.types(), OrderJsonSerializers.module()));
+    }
+}
@@ -0,0 +1,78 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * 지정한 DTO (또는 DTO 의 List) 응답만 처리하는 JSON 컨버터
+ *
+ * 기본 컨버터의 ObjectMapper 에는 Hibernate5Module 이 등록되어 있어서 모든 프로퍼티 값의 프록시 여부를 검사한다.
+ * 엔티티를 참조하지 않는 DTO 만 내려주는 API 는 그 검사가 필요없으므로
+ * Hibernate5Module 없이 전용 serializer 만 등록한 ObjectMapper 로 응답 스트림에 바로 쓴다. (중간 String 없음)
+ *
+ * 쓰기 전용 : 요청 body 읽기는 기본 컨버터가 그대로 처리한다.
+ */
+public class DtoJsonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final Set<Class<?>> types;
+
+    public DtoJsonHttpMessageConverter(Set<Class<?>> types, Module... modules) {
+        super(createObjectMapper(modules));
+        this.types = types;
+    }
+
+    /**
+     * 스프링 부트 기본 ObjectMapper 와 같은 설정 (java.time 모듈, 날짜는 ISO 문자열) + 전용 serializer, Hibernate5Module 제외
+     */
+    public static ObjectMapper createObjectMapper(Module... modules) {
+        return Jackson2ObjectMapperBuilder.json()
+                .modulesToInstall(modules)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return types.contains(clazz) && super.canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return isDtoType(type != null ? type : clazz) && canWrite(mediaType);
+    }
+
+    /** DTO 자체 또는 DTO 의 컬렉션 (List<OrderDto> 등) */
+    private boolean isDtoType(Type type) {
+        if (type instanceof Class) {
+            return types.contains(type);
+        }
+        if (type instanceof ParameterizedType) {
+            ParameterizedType p = (ParameterizedType) type;
+            Type[] args = p.getActualTypeArguments();
+            return p.getRawType() instanceof Class
+                    && Collection.class.isAssignableFrom((Class<?>) p.getRawType())
+                    && args.length == 1
+                    && args[0] instanceof Class
+                    && types.contains(args[0]);
+        }
+        return false;
+    }
+}
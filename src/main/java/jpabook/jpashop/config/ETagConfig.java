@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 목록 API 의 ETag / conditional GET (ETagInterceptor 참고)
+ */
+@Configuration
+@RequiredArgsConstructor
+public class ETagConfig implements WebMvcConfigurer {
+    private final ETagInterceptor etagInterceptor;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(etagInterceptor).addPathPatterns("/api/**");
+    }
+}
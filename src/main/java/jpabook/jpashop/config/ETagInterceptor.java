@@ -0,0 +1,83 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.AggregateVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * @ETagVersioned 가 붙은 API 의 conditional GET
+ *
+ * ShallowEtagHeaderFilter 는 응답 body 를 다 만든 뒤 해시해서 비교하므로 쿼리, 직렬화 비용이 그대로 든다.
+ * 여기서는 핸들러 실행 전에 애그리거트 버전만으로 ETag 를 만들어서
+ * - If-None-Match 가 같으면 304 (본 쿼리, 직렬화 모두 생략)
+ * - 다르면 그대로 진행하고 ETag 헤더는 body 를 쓰기 직전에 2xx 일 때만 단다. (ETagResponseAdvice)
+ *   여기서 바로 달면 핸들러가 예외로 400/500 을 내도 ETag 가 붙어서 나가고,
+ *   서블릿 응답 헤더는 지울 수가 없다.
+ *   레플리카를 읽은 응답에도 달지 않는다. (복제 지연된 데이터가 새 버전으로 캐시되지 않도록)
+ */
+@Component
+@RequiredArgsConstructor
+public class ETagInterceptor implements HandlerInterceptor {
+    static final String ETAG_ATTRIBUTE = ETagInterceptor.class.getName() + ".etag";
+
+    private final AggregateVersions versions;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        ETagVersioned versioned = ((HandlerMethod) handler).getMethodAnnotation(ETagVersioned.class);
+        if (versioned == null) {
+            return true;
+        }
+        // 같은 URL 이라도 Accept 에 따라 json / smile / cbor 로 내용이 다르므로 ETag 도 구분
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        String etag = '"' + versions.etag(versioned.value()) + representation(request.getHeader(HttpHeaders.ACCEPT)) + '"';
+        if (notModified(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            response.setHeader(HttpHeaders.ETAG, etag);
+            return false;
+        }
+        request.setAttribute(ETAG_ATTRIBUTE, etag);
+        return true;
+    }
+
+    /**
+     * If-None-Match : "*" 또는 콤마로 구분된 ETag 목록 (weak 비교라 W/ 는 떼고 비교)
+     */
+    private static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals("*") || candidate.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String representation(String accept) {
+        if (accept == null) {
+            return "";
+        }
+        if (accept.contains("smile")) {
+            return "-smile";
+        }
+        if (accept.contains("cbor")) {
+            return "-cbor";
+        }
+        return "";
+    }
+}
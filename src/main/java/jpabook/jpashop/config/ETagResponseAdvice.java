@@ -0,0 +1,52 @@
+package jpabook.jpashop.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * ETagInterceptor 가 만든 ETag 를 body 를 쓰기 직전에 2xx 응답에만 단다.
+ * 에러 응답(예외 처리, /error 디스패치)은 상태코드가 4xx/5xx 라서 건너뛴다.
+ *
+ * 레플리카를 읽은 응답(jpashop.replica.enabled)에도 달지 않는다.
+ * 버전은 primary 커밋 직후에 올라가므로 복제가 늦은 레플리카의 옛 데이터가 새 ETag 를 달고 나가면
+ * 클라이언트는 다음 변경까지 계속 304 로 옛 데이터를 쓴다.
+ * ETag 가 없으면 다음 요청에서 다시 받아가므로 늦어도 복제가 따라잡은 뒤에는 맞는 데이터가 된다.
+ */
+@ControllerAdvice
+public class ETagResponseAdvice implements ResponseBodyAdvice<Object> {
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest) || !(response instanceof ServletServerHttpResponse)) {
+            return body;
+        }
+        HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+        Object etag = servletRequest.getAttribute(ETagInterceptor.ETAG_ATTRIBUTE);
+        if (etag == null) {
+            return body;
+        }
+        servletRequest.removeAttribute(ETagInterceptor.ETAG_ATTRIBUTE);
+        int status = ((ServletServerHttpResponse) response).getServletResponse().getStatus();
+        if (HttpStatus.Series.resolve(status) == HttpStatus.Series.SUCCESSFUL && !ReadYourWritesFilter.isReplicaRead()) {
+            response.getHeaders().set(HttpHeaders.ETAG, (String) etag);
+        }
+        return body;
+    }
+}
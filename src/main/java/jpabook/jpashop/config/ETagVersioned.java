@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 응답이 value 의 애그리거트들에만 의존하는 GET API 표시
+ *
+ * ETagInterceptor 가 버전으로 ETag 를 만들고 If-None-Match 가 같으면 핸들러를 실행하지 않고 304 로 응답한다.
+ * 응답에 들어가는 데이터의 애그리거트를 빠뜨리면 변경되어도 304 가 나가므로 주의
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ETagVersioned {
+    Aggregate[] value();
+}
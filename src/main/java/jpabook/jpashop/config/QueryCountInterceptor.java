@@ -0,0 +1,130 @@
+package jpabook.jpashop.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 요청별 SQL 실행 횟수 측정
+ *
+ * - 응답 헤더 X-Query-Count (REST 응답은 QueryCountResponseAdvice 에서, 화면은 postHandle 에서)
+ * - 핸들러 메서드별 누적 통계 (/api/admin/query-stats)
+ * - 한 요청에서 같은 모양의 쿼리가 repeat-warn-threshold 번을 넘으면 N+1 의심 경고 로그
+ *
+ * OSIV 로 뷰 렌더링, json 변환 중에 발생한 lazy loading 은 헤더에는 빠지고 통계와 경고에는 포함된다.
+ */
+@Slf4j
+@Component
+public class QueryCountInterceptor implements AsyncHandlerInterceptor {
+    public static final String HEADER = "X-Query-Count";
+
+    private final int repeatWarnThreshold;
+    private final Map<String, HandlerStats> statsByHandler = new ConcurrentHashMap<>();
+
+    public QueryCountInterceptor(@Value("${jpashop.query-count.repeat-warn-threshold:10}") int repeatWarnThreshold) {
+        this.repeatWarnThreshold = repeatWarnThreshold;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // async 재디스패치는 처음 요청에서 이미 측정함
+        if (handler instanceof HandlerMethod && request.getDispatcherType() != DispatcherType.ASYNC) {
+            QueryCounter.start();
+        }
+        return true;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) {
+        QueryCounter counter = QueryCounter.current();
+        if (counter != null && !response.isCommitted()) {
+            response.setIntHeader(HEADER, counter.getTotal());
+        }
+    }
+
+    /** StreamingResponseBody 등 async 요청 - 스트리밍은 다른 스레드에서 하므로 여기까지만 센다. */
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        complete(handler);
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        complete(handler);
+    }
+
+    private void complete(Object handler) {
+        QueryCounter counter = QueryCounter.finish();
+        if (counter == null || !(handler instanceof HandlerMethod)) {
+            return;
+        }
+        String handlerName = handlerName((HandlerMethod) handler);
+        statsByHandler.computeIfAbsent(handlerName, k -> new HandlerStats()).record(counter.getTotal());
+
+        if (counter.getTotal() > repeatWarnThreshold) {
+            counter.countByShape().forEach((shape, count) -> {
+                if (count > repeatWarnThreshold) {
+                    log.warn("N+1 의심 - {} 에서 같은 쿼리가 {}번 실행됨 : {}", handlerName, count, shape);
+                }
+            });
+        }
+    }
+
+    private static String handlerName(HandlerMethod handler) {
+        return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+    }
+
+    /**
+     * 핸들러별 통계, 평균 SQL 수가 많은 순
+     */
+    public List<QueryStats> stats() {
+        return statsByHandler.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .sorted(Comparator.comparing(QueryStats::getAvgStatements).reversed())
+                .collect(Collectors.toList());
+    }
+
+    private static class HandlerStats {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+
+        void record(int count) {
+            requests.increment();
+            statements.add(count);
+            maxStatements.accumulate(count);
+        }
+
+        QueryStats snapshot(String handler) {
+            long req = requests.sum();
+            long stmt = statements.sum();
+            return new QueryStats(handler, req, stmt, req == 0 ? 0 : (double) stmt / req, maxStatements.get());
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class QueryStats {
+        private String handler;
+        private long requests;
+        private long statements;
+        private double avgStatements;
+        private long maxStatements;
+    }
+}
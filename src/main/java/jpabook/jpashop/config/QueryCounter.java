@@ -0,0 +1,76 @@
+package jpabook.jpashop.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 요청(스레드)별 SQL 실행 횟수
+ *
+ * QueryCountInspector 가 하이버네이트가 SQL 을 prepare 할 때마다 record 한다.
+ * (jdbc batch 는 prepare 한 번 = DB 왕복 한 번으로 센다. JdbcTemplate 으로 직접 실행하는 SQL 은 세지 않음)
+ * start 하지 않은 스레드(배치, 스케줄러 등)에서는 아무것도 기록하지 않는다.
+ */
+public final class QueryCounter {
+    private static final ThreadLocal<QueryCounter> CURRENT = new ThreadLocal<>();
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int total;
+    private final Map<String, Integer> countBySql = new HashMap<>();
+
+    private QueryCounter() {
+    }
+
+    public static QueryCounter start() {
+        QueryCounter counter = new QueryCounter();
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    public static QueryCounter current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 스레드의 카운터를 떼어내서 반환 (start 하지 않았으면 null)
+     */
+    public static QueryCounter finish() {
+        QueryCounter counter = CURRENT.get();
+        CURRENT.remove();
+        return counter;
+    }
+
+    static void record(String sql) {
+        QueryCounter counter = CURRENT.get();
+        if (counter != null) {
+            counter.total++;
+            counter.countBySql.merge(sql, 1, Integer::sum);
+        }
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * 쿼리 모양별 실행 횟수, 많은 순
+     * in 절의 파라미터 개수나 공백만 다른 쿼리는 같은 모양으로 본다. (모양 계산은 요청 끝에 한 번만)
+     */
+    public Map<String, Integer> countByShape() {
+        Map<String, Integer> byShape = new HashMap<>();
+        countBySql.forEach((sql, count) -> byShape.merge(shapeOf(sql), count, Integer::sum));
+
+        Map<String, Integer> sorted = new LinkedHashMap<>();
+        byShape.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .forEach(e -> sorted.put(e.getKey(), e.getValue()));
+        return sorted;
+    }
+
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        return IN_LIST.matcher(shape).replaceAll("in (?)");
+    }
+}
@@ -0,0 +1,127 @@
+package jpabook.jpashop.config;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * read-your-writes 를 클라이언트 단위로 (ReplicaRoutingDataSource)
+ *
+ * 톰캣 워커 스레드는 요청마다 바뀌므로 스레드에 표시해두면
+ * 같은 사용자의 다음 요청(POST 후 redirect GET 등)은 레플리카를 읽고, 그 스레드를 받은 다른 사용자가 primary 에 묶인다.
+ * 그래서 쓰기가 커밋되면 "이 시각까지 primary" 를 쿠키로 내려주고 다음 요청에서 쿠키를 읽는다.
+ * - 같은 요청 안 : 커밋 이후의 읽기는 바로 primary
+ * - 다음 요청 : 쿠키가 있고 시각이 지나지 않았으면 primary
+ * 요청별 상태는 요청이 끝나면 지운다.
+ *
+ * 이 요청이 레플리카를 읽었는지도 같이 기록한다. (레플리카 응답에는 ETag 를 달지 않음 - ETagResponseAdvice)
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+    public static final String COOKIE = "jpashop-ryw";
+
+    private static final ThreadLocal<RequestState> CURRENT = new ThreadLocal<>();
+
+    private final long windowMillis;
+
+    public ReadYourWritesFilter(long windowMillis) {
+        this.windowMillis = windowMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        CURRENT.set(new RequestState(response, pinnedUntil(request), windowMillis));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * 쓰기 커밋 후 호출
+     *
+     * @return 요청 밖(배치 등)이라 기록하지 못했으면 false
+     */
+    static boolean pin(long until) {
+        RequestState state = CURRENT.get();
+        if (state == null) {
+            return false;
+        }
+        state.pin(until);
+        return true;
+    }
+
+    /**
+     * 레플리카로 라우팅될 때 호출
+     */
+    static void markReplicaRead() {
+        RequestState state = CURRENT.get();
+        if (state != null) {
+            state.replicaRead = true;
+        }
+    }
+
+    /**
+     * @return 이 요청에서 레플리카를 읽었으면 true (요청 밖이면 false)
+     */
+    static boolean isReplicaRead() {
+        RequestState state = CURRENT.get();
+        return state != null && state.replicaRead;
+    }
+
+    /**
+     * @return 요청 밖이면 null
+     */
+    static Boolean isPinned() {
+        RequestState state = CURRENT.get();
+        return state == null ? null : System.currentTimeMillis() < state.until;
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static class RequestState {
+        private final HttpServletResponse response;
+        private final long windowMillis;
+        private long until;
+        private boolean replicaRead;
+
+        RequestState(HttpServletResponse response, long until, long windowMillis) {
+            this.response = response;
+            this.until = until;
+            this.windowMillis = windowMillis;
+        }
+
+        void pin(long until) {
+            this.until = Math.max(this.until, until);
+            // 응답이 이미 나가기 시작했으면 쿠키는 못 붙이지만 이 요청 안의 읽기는 primary
+            if (!response.isCommitted()) {
+                Cookie cookie = new Cookie(COOKIE, String.valueOf(this.until));
+                cookie.setPath("/");
+                cookie.setHttpOnly(true);
+                cookie.setMaxAge((int) Math.max(1, (windowMillis + 999) / 1000));
+                response.addCookie(cookie);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 읽기 전용 트랜잭션 레플리카 라우팅 (jpashop.replica.enabled)
+ *
+ * primary 는 spring.datasource 설정 그대로, 레플리카는 url 만 다르게 해서 hikari pool 을 하나씩 만든다.
+ * 서비스들이 클래스 레벨에 @Transactional(readOnly = true) 이므로 조회 메서드는 자동으로 레플리카로 간다.
+ * 대상별 통계 : /api/admin/datasource-stats
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+    private ReplicaRoutingDataSource routing;
+
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties,
+                                 @Value("${jpashop.replica.urls}") List<String> urls,
+                                 @Value("${jpashop.replica.policy:ROUND_ROBIN}") ReplicaPolicy policy,
+                                 @Value("${jpashop.replica.read-your-writes-window-ms:1000}") long readYourWritesWindowMs) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : urls) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+            replica.setPoolName("replica-" + (replicas.size() + 1));
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+
+        routing = new ReplicaRoutingDataSource(primary, replicas, policy, readYourWritesWindowMs);
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @PreDestroy
+    public void closePools() {
+        if (routing != null) {
+            routing.close();
+        }
+    }
+
+    /**
+     * read-your-writes 를 클라이언트(쿠키) 단위로 - 모든 요청 (화면도 OSIV 로 조회하므로)
+     */
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${jpashop.replica.read-your-writes-window-ms:1000}") long readYourWritesWindowMs) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration =
+                new FilterRegistrationBean<>(new ReadYourWritesFilter(readYourWritesWindowMs));
+        registration.addUrlPatterns("/*");
+        return registration;
+    }
+
+    /**
+     * 기본값(DELAYED_ACQUISITION_AND_HOLD)은 OSIV 에서 요청이 끝날 때까지 처음 잡은 커넥션을 계속 쓰므로
+     * 같은 요청의 다음 트랜잭션이 라우팅되지 않는다. 트랜잭션이 끝나면 커넥션을 반납하도록 변경
+     */
+    @Bean
+    public HibernatePropertiesCustomizer replicaConnectionHandling() {
+        return props -> props.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+}
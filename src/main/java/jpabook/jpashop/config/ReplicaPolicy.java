@@ -0,0 +1,11 @@
+package jpabook.jpashop.config;
+
+/**
+ * 읽기 전용 트랜잭션을 어느 레플리카로 보낼지
+ */
+public enum ReplicaPolicy {
+    /** 순서대로 돌아가며 */
+    ROUND_ROBIN,
+    /** 사용중인 커넥션이 가장 적은 레플리카 (hikari active connections) */
+    LEAST_CONNECTIONS
+}
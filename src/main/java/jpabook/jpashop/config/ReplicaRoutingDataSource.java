@@ -0,0 +1,192 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * readOnly 트랜잭션은 레플리카로, 나머지는 primary 로 보내는 DataSource
+ *
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 TransactionSynchronizationManager 에 들어가기 전이므로
+ * 반드시 LazyConnectionDataSourceProxy 로 감싸서 첫 SQL 실행 시점에 커넥션을 고르도록 해야한다. (ReplicaDataSourceConfig)
+ *
+ * read-your-writes : 쓰기 트랜잭션이 커밋되면 그 클라이언트는 window 동안 readOnly 라도 primary 를 읽는다.
+ * (복제 지연 때문에 방금 저장한 데이터가 레플리카에 아직 없을 수 있음. 예: 회원 수정 후 바로 조회)
+ * - 웹 요청 : ReadYourWritesFilter 의 쿠키로 같은 클라이언트의 다음 요청까지
+ * - 요청 밖 (배치, 스케줄러 등) : 같은 스레드
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    public static final String PRIMARY = "primary";
+
+    private final Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+    private final Map<String, TargetStats> stats = new LinkedHashMap<>();
+    private final List<String> replicaKeys = new ArrayList<>();
+    private final ReplicaPolicy policy;
+    private final long readYourWritesWindowMillis;
+    private final AtomicInteger next = new AtomicInteger();
+    /** 웹 요청 밖에서 쓰기를 커밋한 스레드 */
+    private final ThreadLocal<Long> primaryPinnedUntil = new ThreadLocal<>();
+    /** 대상별 통계 외에 SQL 실행을 같이 받을 리스너 (SqlSamplingConfig) */
+    private volatile SqlExecutionListener sqlListener;
+
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    ReplicaPolicy policy, long readYourWritesWindowMillis) {
+        this.policy = policy;
+        this.readYourWritesWindowMillis = readYourWritesWindowMillis;
+
+        pools.put(PRIMARY, primary);
+        for (int i = 0; i < replicas.size(); i++) {
+            String key = "replica-" + (i + 1);
+            replicaKeys.add(key);
+            pools.put(key, replicas.get(i));
+        }
+
+        // 대상별 SQL 수, 실행시간 집계를 위해 각 pool 을 감싼다.
+        // SQL 샘플링도 여기에 붙인다. (바깥에서 한 번 더 감싸지 않도록)
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        pools.forEach((key, pool) -> {
+            TargetStats target = new TargetStats();
+            stats.put(key, target);
+            targets.put(key, SqlSamplingDataSource.wrap(pool, (sql, elapsed) -> {
+                target.onExecute(sql, elapsed);
+                SqlExecutionListener listener = sqlListener;
+                if (listener != null) {
+                    listener.onExecute(sql, elapsed);
+                }
+            }));
+        });
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(targets.get(PRIMARY));
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String key = lookupKey();
+        stats.get(key).connections.increment();
+        return key;
+    }
+
+    private String lookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            pinPrimaryAfterCommit();
+            return PRIMARY;
+        }
+        if (replicaKeys.isEmpty() || isPrimaryPinned()) {
+            return PRIMARY;
+        }
+        ReadYourWritesFilter.markReplicaRead();
+        return policy == ReplicaPolicy.LEAST_CONNECTIONS ? leastConnections() : roundRobin();
+    }
+
+    private void pinPrimaryAfterCommit() {
+        if (readYourWritesWindowMillis <= 0 || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                long until = System.currentTimeMillis() + readYourWritesWindowMillis;
+                if (!ReadYourWritesFilter.pin(until)) {
+                    primaryPinnedUntil.set(until);
+                }
+            }
+        });
+    }
+
+    private boolean isPrimaryPinned() {
+        Boolean requestPinned = ReadYourWritesFilter.isPinned();
+        if (requestPinned != null) {
+            return requestPinned;
+        }
+        Long until = primaryPinnedUntil.get();
+        if (until == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() < until) {
+            return true;
+        }
+        primaryPinnedUntil.remove();
+        return false;
+    }
+
+    private String roundRobin() {
+        return replicaKeys.get(Math.floorMod(next.getAndIncrement(), replicaKeys.size()));
+    }
+
+    private String leastConnections() {
+        String least = replicaKeys.get(0);
+        int min = Integer.MAX_VALUE;
+        for (String key : replicaKeys) {
+            int active = activeConnections(pools.get(key));
+            if (active < min) {
+                min = active;
+                least = key;
+            }
+        }
+        return least;
+    }
+
+    private static int activeConnections(HikariDataSource pool) {
+        // pool 이 아직 초기화되지 않았으면 null
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        return mxBean == null ? 0 : mxBean.getActiveConnections();
+    }
+
+    /**
+     * 대상(primary, replica-N)별 통계
+     */
+    public List<TargetStatsDto> stats() {
+        return stats.entrySet().stream()
+                .map(e -> e.getValue().snapshot(e.getKey(), activeConnections(pools.get(e.getKey()))))
+                .collect(Collectors.toList());
+    }
+
+    public void setSqlExecutionListener(SqlExecutionListener sqlListener) {
+        this.sqlListener = sqlListener;
+    }
+
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+
+    private static class TargetStats implements SqlExecutionListener {
+        private final LongAdder connections = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder elapsedNanos = new LongAdder();
+
+        @Override
+        public void onExecute(String sql, long elapsed) {
+            statements.increment();
+            elapsedNanos.add(elapsed);
+        }
+
+        TargetStatsDto snapshot(String target, int activeConnections) {
+            long stmt = statements.sum();
+            double avgMs = stmt == 0 ? 0 : elapsedNanos.sum() / 1_000_000.0 / stmt;
+            return new TargetStatsDto(target, connections.sum(), stmt, avgMs, activeConnections);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class TargetStatsDto {
+        private String target;
+        private long connections;
+        private long statements;
+        private double avgMs;
+        private int activeConnections;
+    }
+}
@@ -2,6 +2,8 @@ package jpabook.jpashop.config;
 
 import jpabook.jpashop.domain.*;
 import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -13,12 +15,17 @@ import javax.persistence.EntityManager;
 @RequiredArgsConstructor
 public class SampleDataSetup implements CommandLineRunner {
     private final EntityManager em;
+    private final OrderSummaryRepository summaryRepo;
+    private final SalesRollupRepository salesRepo;
 
     @Transactional
     @Override
     public void run(String... args) throws Exception {
         dbInit1();
         dbInit2();
+        // em.persist 로 직접 넣은 주문이므로 읽기 모델, 매출 롤업은 한번에 생성
+        summaryRepo.rebuild();
+        salesRepo.rebuild();
     }
 
     private void dbInit1() {
@@ -0,0 +1,11 @@
+package jpabook.jpashop.config;
+
+/**
+ * SqlSamplingDataSource 가 Statement 실행마다 호출
+ */
+public interface SqlExecutionListener {
+    /**
+     * @param sql prepare 시점의 SQL (Statement 배치처럼 알 수 없으면 null)
+     */
+    void onExecute(String sql, long elapsedNanos);
+}
@@ -0,0 +1,34 @@
+package jpabook.jpashop.config;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 을 값만 다른 쿼리끼리 같은 문자열이 되도록 정규화 (slow query 집계용)
+ *
+ * - 주석 제거, 문자열/숫자 리터럴 -> ?
+ * - in 절 길이 무시 : in (?, ?, ?) -> in (?)
+ * - 공백 정리, 소문자
+ */
+public final class SqlFingerprint {
+    private static final Pattern COMMENT = Pattern.compile("/\\*.*?\\*/", Pattern.DOTALL);
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("in\\s*\\(\\s*\\?(?:\\s*,\\s*\\?)*\\s*\\)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private SqlFingerprint() {
+    }
+
+    public static String of(String sql) {
+        if (sql == null) {
+            return "(batch)";
+        }
+        String s = COMMENT.matcher(sql).replaceAll(" ");
+        s = STRING_LITERAL.matcher(s).replaceAll("?");
+        s = NUMBER_LITERAL.matcher(s).replaceAll("?");
+        s = IN_LIST.matcher(s).replaceAll("in (?)");
+        s = WHITESPACE.matcher(s).replaceAll(" ").trim();
+        return s.toLowerCase(Locale.ROOT);
+    }
+}
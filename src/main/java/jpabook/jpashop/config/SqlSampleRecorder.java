@@ -0,0 +1,120 @@
+package jpabook.jpashop.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+
+/**
+ * 샘플링 SQL 기록기 (p6spy 대신 운영에서 켜두는 용도, SqlSamplingConfig 참고)
+ *
+ * - sample-rate 건 중 1건 + slow-threshold-ms 이상 걸린 모든 SQL 을 기록
+ * - 고정 크기 ring buffer 에 덮어쓰기만 하므로 락이 없고 메모리도 일정 (오래된 기록은 사라짐)
+ * - 기록하지 않는 SQL 은 시간 비교와 난수 한 번이 전부
+ * - fingerprint 계산, 집계는 리포트를 조회할 때만 한다.
+ */
+@Component
+public class SqlSampleRecorder implements SqlExecutionListener {
+    private final int sampleRate;
+    private final long slowThresholdNanos;
+    private final AtomicReferenceArray<SqlSample> buffer;
+    private final int mask;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SqlSampleRecorder(@Value("${jpashop.sql-sampling.sample-rate:100}") int sampleRate,
+                             @Value("${jpashop.sql-sampling.slow-threshold-ms:100}") long slowThresholdMs,
+                             @Value("${jpashop.sql-sampling.buffer-size:1024}") int bufferSize) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        // 2의 제곱수로 올림 (index 계산을 & 로)
+        int size = Integer.highestOneBit(Math.max(2, bufferSize) - 1) << 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    @Override
+    public void onExecute(String sql, long elapsedNanos) {
+        boolean slow = elapsedNanos >= slowThresholdNanos;
+        if (!slow && (sampleRate <= 0 || ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        long seq = sequence.getAndIncrement();
+        buffer.set((int) (seq & mask), new SqlSample(sql, elapsedNanos, System.currentTimeMillis(), slow));
+    }
+
+    /**
+     * 버퍼에 남아있는 기록을 fingerprint 별로 묶어서 최대 실행시간이 긴 순으로 k 개
+     */
+    public List<SlowQuery> topSlowQueries(int k) {
+        Map<String, SlowQuery> byFingerprint = new LinkedHashMap<>();
+        for (SqlSample sample : snapshot()) {
+            byFingerprint.computeIfAbsent(SqlFingerprint.of(sample.getSql()), SlowQuery::new).add(sample);
+        }
+        return byFingerprint.values().stream()
+                .sorted(Comparator.comparingDouble(SlowQuery::getMaxMs).reversed())
+                .limit(k)
+                .collect(Collectors.toList());
+    }
+
+    /** 전체 기록 수 (버퍼 크기를 넘어 덮어쓴 것 포함) */
+    public long recordedCount() {
+        return sequence.get();
+    }
+
+    List<SqlSample> snapshot() {
+        List<SqlSample> samples = new ArrayList<>(buffer.length());
+        for (int i = 0; i < buffer.length(); i++) {
+            SqlSample sample = buffer.get(i);
+            if (sample != null) {
+                samples.add(sample);
+            }
+        }
+        return samples;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    static class SqlSample {
+        private final String sql;
+        private final long elapsedNanos;
+        private final long executedAt;
+        private final boolean slow;
+    }
+
+    @Data
+    public static class SlowQuery {
+        private final String fingerprint;
+        private String exampleSql;
+        private int samples;
+        private int slowSamples;
+        private double maxMs;
+        private double avgMs;
+        private long lastExecutedAt;
+
+        void add(SqlSample sample) {
+            double ms = sample.getElapsedNanos() / 1_000_000.0;
+            avgMs = (avgMs * samples + ms) / (samples + 1);
+            samples++;
+            if (sample.isSlow()) {
+                slowSamples++;
+            }
+            if (ms >= maxMs) {
+                maxMs = ms;
+                exampleSql = sample.getSql();
+            }
+            lastExecutedAt = Math.max(lastExecutedAt, sample.getExecutedAt());
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package jpabook.jpashop.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+/**
+ * 샘플링 SQL 기록 (jpashop.sql-sampling.enabled)
+ *
+ * p6spy 는 모든 SQL 을 포맷팅해서 로그로 남기므로 운영에서는 끄게 되는데 (decorator.datasource.enabled=false)
+ * 그러면 어떤 쿼리가 느린지 전혀 알 수 없다.
+ * 대신 DataSource 를 가볍게 감싸서 일부 + 느린 SQL 만 메모리에 기록한다. (SqlSampleRecorder)
+ * 결과는 /api/admin/slow-queries
+ *
+ * p6spy 를 켠 채로 같이 켜면 감싸는 층이 하나 더 생기므로 기본값은 꺼둔다. (prod 프로필에서 p6spy 를 끄고 켠다 - application-prod.yaml)
+ * 레플리카 라우팅은 이미 대상 pool 마다 감싸고 있으므로 거기에 리스너만 붙인다.
+ */
+@Configuration
+@ConditionalOnProperty(name = "jpashop.sql-sampling.enabled", havingValue = "true")
+public class SqlSamplingConfig {
+
+    // BeanPostProcessor 는 다른 빈보다 먼저 만들어지므로 static + recorder 는 실제로 감쌀 때 가져온다.
+    @Bean
+    public static BeanPostProcessor sqlSamplingDataSourcePostProcessor(ObjectProvider<SqlSampleRecorder> recorder) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource)) {
+                    return bean;
+                }
+                ReplicaRoutingDataSource routing = routingOf((DataSource) bean);
+                if (routing != null) {
+                    routing.setSqlExecutionListener(recorder.getObject());
+                    return bean;
+                }
+                return SqlSamplingDataSource.wrap((DataSource) bean, recorder.getObject());
+            }
+        };
+    }
+
+    /** LazyConnectionDataSourceProxy 등으로 감싼 ReplicaRoutingDataSource 를 꺼낸다. 아니면 null */
+    private static ReplicaRoutingDataSource routingOf(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ReplicaRoutingDataSource.class)
+                    ? dataSource.unwrap(ReplicaRoutingDataSource.class) : null;
+        } catch (SQLException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package jpabook.jpashop.config;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import com.p6spy.engine.wrapper.ConnectionWrapper;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection 을 p6spy 의 래퍼로 감싸서 execute* 실행시간을 SqlExecutionListener 로 넘기는 DataSource
+ * (SqlSampleRecorder, 레플리카 라우팅의 대상별 통계)
+ *
+ * 처음엔 JDK 동적 프록시로 Connection -> Statement 를 감쌌는데 파라미터 바인딩까지 모든 호출이 리플렉션(Method.invoke)을 탔다.
+ * p6spy 래퍼는 일반 클래스라 위임이 직접 호출이고, 리스너는 실행(execute*, executeBatch)이 끝났을 때만 받는다.
+ * p6spy 의 로깅 모듈(spy.properties, decorator)은 거치지 않는다. (p6spy 는 starter 와 별개로 직접 의존 - build.gradle)
+ * unwrap / isWrapperFor 는 원본으로 위임하므로 hikari 설정, 메트릭 등은 그대로 동작한다.
+ */
+final class SqlSamplingDataSource extends DelegatingDataSource {
+    private final ExecuteListener eventListener;
+
+    private SqlSamplingDataSource(DataSource target, SqlExecutionListener listener) {
+        super(target);
+        this.eventListener = new ExecuteListener(listener);
+    }
+
+    static DataSource wrap(DataSource dataSource, SqlExecutionListener listener) {
+        return new SqlSamplingDataSource(dataSource, listener);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection();
+        return wrap(connection, System.nanoTime() - start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection = obtainTargetDataSource().getConnection(username, password);
+        return wrap(connection, System.nanoTime() - start);
+    }
+
+    private Connection wrap(Connection connection, long elapsedNanos) {
+        return ConnectionWrapper.wrap(connection, eventListener,
+                ConnectionInformation.fromDataSource(obtainTargetDataSource(), connection, elapsedNanos));
+    }
+
+    /**
+     * execute, executeQuery, executeUpdate, executeBatch 가 끝났을 때만 (바인딩, ResultSet 이벤트는 기본 구현이 아무것도 안 함)
+     */
+    private static class ExecuteListener extends SimpleJdbcEventListener {
+        private final SqlExecutionListener listener;
+
+        ExecuteListener(SqlExecutionListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+            listener.onExecute(statementInformation.getSql(), timeElapsedNanos);
+        }
+    }
+}
@@ -1,26 +1,38 @@
 package jpabook.jpashop.domain;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jpabook.jpashop.domain.item.Item;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// 2차 캐시 : 거의 바뀌지 않으므로 NONSTRICT_READ_WRITE
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = "category")
 @Getter @Setter
 public class Category {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "category_seq")
     @Column(name = "category_id")
     private Long id;
 
     private String name;
 
+    // 카테고리 -> 상품, 상품 -> 카테고리 양방향으로 조회하므로 인덱스도 양방향으로
     @ManyToMany
     @JoinTable(name = "category_item",
             joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id")
+            inverseJoinColumns = @JoinColumn(name = "item_id"),
+            indexes = {
+                    @Index(name = "idx_category_item_category", columnList = "category_id, item_id"),
+                    @Index(name = "idx_category_item_item", columnList = "item_id, category_id")
+            }
     )
     private List<Item> items = new ArrayList<>();
 
@@ -32,9 +44,49 @@ public class Category {
     @OneToMany(mappedBy = "parent")
     private List<Category> child = new ArrayList<>();
 
+    // closure table (CategoryClosure 참조) - 서브트리 한방 조회용 인덱스
+    // 내가 자손인 경로들 (나 자신 포함), 이쪽으로 cascade 해서 저장
+    @JsonIgnore
+    @OneToMany(mappedBy = "descendant", cascade = CascadeType.PERSIST)
+    private List<CategoryClosure> ancestorPaths = new ArrayList<>();
+
+    // 내가 조상인 경로들 (나 자신 포함)
+    @JsonIgnore
+    @OneToMany(mappedBy = "ancestor")
+    private List<CategoryClosure> descendantPaths = new ArrayList<>();
+
     //==연관관계 편의 메서드
+    /**
+     * closure 도 함께 갱신한다 : (나를 포함한 나의 조상들) x (자식을 포함한 자식 서브트리의 자손들)
+     * 이미 하위 카테고리가 달린 자식을 붙여도 된다. 다른 부모로 옮기는 것은 지원하지 않음
+     */
     public void addChildCategory(Category child) {
+        if (child.getParent() != null) {
+            throw new IllegalStateException("이미 상위 카테고리가 있습니다.");
+        }
+        initSelfPath();
+        child.initSelfPath();
+        for (CategoryClosure up : ancestorPaths) {
+            if (up.getAncestor() == child) {
+                throw new IllegalStateException("하위 카테고리를 상위로 지정할 수 없습니다.");
+            }
+        }
+
         this.child.add(child);
         child.setParent(this);
+
+        for (CategoryClosure up : ancestorPaths) {
+            for (CategoryClosure down : new ArrayList<>(child.getDescendantPaths())) {
+                CategoryClosure.link(up.getAncestor(), down.getDescendant(), up.getDepth() + down.getDepth() + 1);
+            }
+        }
+    }
+
+    /** 자기 자신 경로 (depth 0) - 하위 카테고리 없이 저장되는 경우도 있으므로 persist 시점에도 확인 */
+    @PrePersist
+    void initSelfPath() {
+        if (ancestorPaths.isEmpty()) {
+            CategoryClosure.link(this, this, 0);
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,51 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * 카테고리 계층구조 closure table
+ *
+ * (조상, 자손, 거리) 를 트리의 모든 조상-자손 쌍에 대해 저장한다. (자기 자신도 depth 0 으로 포함)
+ * parent 만으로 서브트리를 읽으면 레벨마다, 노드마다 쿼리가 나가지만
+ * closure 가 있으면 "ancestor_id = ?" 하나로 깊이와 상관없이 서브트리 전체를 한 번에 읽을 수 있다.
+ *
+ * Category.addChildCategory 에서만 만들어진다.
+ */
+@Entity
+@Table(name = "category_closure",
+        uniqueConstraints = @UniqueConstraint(name = "uk_category_closure", columnNames = {"ancestor_id", "descendant_id"}),
+        indexes = @Index(name = "idx_category_closure_descendant", columnList = "descendant_id, ancestor_id"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class CategoryClosure {
+    @Id
+    @GeneratedValue(generator = "category_closure_seq")
+    @Column(name = "category_closure_id")
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "ancestor_id")
+    private Category ancestor;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "descendant_id")
+    private Category descendant;
+
+    private int depth;
+
+    //==생성 메서드==/
+    static CategoryClosure link(Category ancestor, Category descendant, int depth) {
+        CategoryClosure closure = new CategoryClosure();
+        closure.ancestor = ancestor;
+        closure.descendant = descendant;
+        closure.depth = depth;
+
+        descendant.getAncestorPaths().add(closure);
+        ancestor.getDescendantPaths().add(closure);
+        return closure;
+    }
+}
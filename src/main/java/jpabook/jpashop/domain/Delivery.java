@@ -9,7 +9,8 @@ import javax.persistence.*;
 @Entity
 @Getter @Setter
 public class Delivery {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "delivery_seq")
     @Column(name = "delivery_id")
     private Long id;
 
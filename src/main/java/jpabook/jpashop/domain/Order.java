@@ -11,13 +11,20 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "orders")
+// idx_orders_order_date_id : 주문일시 기준 keyset 페이징용 (order by order_date desc, order_id desc 를 역방향 스캔으로 처리)
+// idx_orders_member_date : 회원별 주문내역 keyset 페이징용, status 까지 포함해서 테이블을 읽지 않고 인덱스만으로 응답 (covering index)
+// idx_orders_status_date : 주문검색의 상태 조건 (+ 주문일시 정렬/범위)
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_order_date_id", columnList = "order_date, order_id"),
+        @Index(name = "idx_orders_member_date", columnList = "member_id, order_date, order_id, status"),
+        @Index(name = "idx_orders_status_date", columnList = "status, order_date")
+})
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class Order {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "orders_seq")
     @Column(name = "order_id")
     private Long id;
 
@@ -35,10 +42,12 @@ public class Order {
     @JoinColumn(name = "delivery_id")
     private Delivery delivery;
 
+    @Column(name = "order_date")
     private LocalDateTime orderDate;
 
     // 기본값이 ORDINAL 이므로 꼭 STRING 으로 세팅하자
     @Enumerated(EnumType.STRING)
+    @Column(name = "status")
     private OrderStatus status; //주문상태 [ORDER, CANCEL]
 
     //==연관관계 편의 메서드 :
@@ -80,10 +89,12 @@ public class Order {
         if(delivery.getStatus() == DeliveryStatus.COMP) {
             throw new IllegalStateException("배송완료된건 취소 불가");
         }
-        this.setStatus(OrderStatus.CANCEL);
-        for (OrderItem orderItem : orderItems) {
-            orderItem.cancel();
+        // 두 번 취소하면 재고와 매출 롤업이 두 번 원복되므로 막는다.
+        if (this.status == OrderStatus.CANCEL) {
+            throw new IllegalStateException("이미 취소된 주문");
         }
+        this.setStatus(OrderStatus.CANCEL);
+        // 재고 원복은 OrderService.cancelOrder 에서 StockManager.addStock 으로 (변경감지로 쓰면 version 충돌)
     }
 
     //==조회 로직==//
@@ -14,7 +14,8 @@ import javax.persistence.*;
 // 정적 팩토리 메서드로만 생성할 수 있게하기 위해 PROTECT 로 세팅
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 public class OrderItem {
-    @Id @GeneratedValue
+    @Id
+    @GeneratedValue(generator = "order_item_seq")
     @Column(name = "order_item_id")
     private Long id;
 
@@ -32,19 +33,21 @@ public class OrderItem {
 
     //==생성 메서드==/
     public static OrderItem createOrderItem(Item item, int orderPrice, int count) {
-        OrderItem orderItem = new OrderItem();
-        orderItem.setItem(item);
-        orderItem.setOrderPrice(orderPrice);
-        orderItem.setCount(count);
+        OrderItem orderItem = createReservedOrderItem(item, orderPrice, count);
 
         item.removeStock(count);
         return orderItem;
     }
 
-    //==비즈니스 로직==/
-    public void cancel() {
-        // 재고 수량 원복
-        getItem().addStock(count);
+    /**
+     * 재고를 이미 차감한 경우 (StockManager 로 DB에서 직접 차감한 경우)
+     */
+    public static OrderItem createReservedOrderItem(Item item, int orderPrice, int count) {
+        OrderItem orderItem = new OrderItem();
+        orderItem.setItem(item);
+        orderItem.setOrderPrice(orderPrice);
+        orderItem.setCount(count);
+        return orderItem;
     }
 
     //==조회 로직==//
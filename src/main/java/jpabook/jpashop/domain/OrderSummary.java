@@ -0,0 +1,64 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * 주문 목록 조회용 읽기 모델 (CQRS)
+ *
+ * 주문 목록(/api/v5/simple-orders)은 orders, member, delivery 조인이 매번 필요하므로
+ * 목록에 필요한 값만 비정규화해서 한 테이블에 둔다. -> 조인 없이 (order_date, order_id) 인덱스만 타고 읽음
+ *
+ * 주문, 취소, 회원명 변경 시 같은 트랜잭션에서 함께 갱신한다. (OrderService, MemberService)
+ * 어긋났을 때는 OrderService.rebuildOrderSummaries 로 전체를 다시 만든다.
+ */
+@Entity
+@Table(name = "order_summary", indexes = {
+        @Index(name = "idx_order_summary_date", columnList = "order_date, order_id"),
+        @Index(name = "idx_order_summary_member", columnList = "member_id")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OrderSummary {
+    // 주문 id 를 그대로 사용
+    @Id
+    @Column(name = "order_id")
+    private Long id;
+
+    @Column(name = "member_id")
+    private Long memberId;
+
+    @Column(name = "member_name")
+    private String memberName;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private OrderStatus status;
+
+    // 배송지
+    @Embedded
+    private Address address;
+
+    //==생성 메서드==/
+    public static OrderSummary from(Order order) {
+        OrderSummary summary = new OrderSummary();
+        summary.id = order.getId();
+        summary.memberId = order.getMember().getId();
+        summary.memberName = order.getMember().getName();
+        summary.orderDate = order.getOrderDate();
+        summary.status = order.getStatus();
+        summary.address = order.getDelivery().getAddress();
+        return summary;
+    }
+
+    public void changeStatus(OrderStatus status) {
+        this.status = status;
+    }
+}
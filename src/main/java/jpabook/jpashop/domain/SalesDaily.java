@@ -0,0 +1,47 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별, 주문상태별 매출 집계 (롤업)
+ *
+ * 주문/취소 시점에 증분으로 갱신한다. (SalesRollupService)
+ * 매출 조회가 order_item 을 전혀 읽지 않고 (일수 x 상태수) 만큼의 row 만 읽는다.
+ * 날짜는 주문일 기준 (취소되면 주문일의 ORDER 에서 빠지고 CANCEL 로 옮겨감)
+ */
+@Entity
+@Table(name = "sales_daily")
+@IdClass(SalesDaily.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesDaily {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private OrderStatus status;
+
+    @Column(name = "order_count")
+    private long orderCount;
+    private long units;
+    private long revenue;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private OrderStatus status;
+    }
+}
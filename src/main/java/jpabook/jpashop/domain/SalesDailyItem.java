@@ -0,0 +1,51 @@
+package jpabook.jpashop.domain;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * 일별, 상품별, 주문상태별 매출 집계 (롤업)
+ *
+ * order_count 는 그 상품을 포함한 주문 수
+ * item_id 는 연관관계 없이 값으로만 가진다. (집계 row 가 상품 엔티티를 로딩할 일이 없음)
+ */
+@Entity
+@Table(name = "sales_daily_item")
+@IdClass(SalesDailyItem.Key.class)
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class SalesDailyItem {
+    @Id
+    @Column(name = "sales_date")
+    private LocalDate salesDate;
+
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status")
+    private OrderStatus status;
+
+    @Column(name = "order_count")
+    private long orderCount;
+    private long units;
+    private long revenue;
+
+    @EqualsAndHashCode
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private LocalDate salesDate;
+        private Long itemId;
+        private OrderStatus status;
+    }
+}
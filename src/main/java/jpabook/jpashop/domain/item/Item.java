@@ -4,19 +4,24 @@ import jpabook.jpashop.domain.Category;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import lombok.Getter;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+// 2차 캐시 : 재고가 자주 바뀌므로 READ_WRITE (soft lock 으로 커밋 전 값이 다른 트랜잭션에 보이지 않음)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "item")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "dtype")
 @Getter
 @Setter
 public class Item {
     @Id
-    @GeneratedValue
+    @GeneratedValue(generator = "item_seq")
     @Column(name = "item_id")
     private Long id;
 
@@ -24,11 +29,13 @@ public class Item {
     private int price;
     private int stockQuantity;
 
-    @ManyToMany
-    @JoinTable(name = "category_item",
-            joinColumns = @JoinColumn(name = "category_id"),
-            inverseJoinColumns = @JoinColumn(name = "item_id")
-    )
+    // 낙관적 락 : 동시에 같은 상품의 재고를 변경하면 나중에 커밋하는 쪽이 실패한다. (lost update 방지)
+    // 래퍼 타입으로 두면 version 이 null 인 준영속 엔티티를 merge 할 때 신규 엔티티로 판단하므로 primitive 사용
+    @Version
+    private int version;
+
+    // category_item 의 주인은 Category.items (여기서도 @JoinTable 로 매핑하면 컬럼이 뒤바뀐 채로 따로 insert 됨)
+    @ManyToMany(mappedBy = "items")
     private List<Category> categories = new ArrayList<>();
 
     //==비즈니스 로직==//
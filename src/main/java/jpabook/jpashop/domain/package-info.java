@@ -0,0 +1,29 @@
+/**
+ * 엔티티별 id 시퀀스 (PooledSequenceGenerator)
+ *
+ * 패키지 레벨 @GenericGenerator 는 전역으로 등록되므로 하위 패키지(item)의 엔티티도
+ * @GeneratedValue(generator = "xxx_seq") 로 이름만 지정하면 된다.
+ * 엔티티를 추가하면 여기에 시퀀스를 하나 추가한다.
+ */
+@GenericGenerators({
+        @GenericGenerator(name = "member_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq")),
+        @GenericGenerator(name = "orders_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "orders_seq")),
+        @GenericGenerator(name = "order_item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "order_item_seq")),
+        @GenericGenerator(name = "delivery_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "delivery_seq")),
+        @GenericGenerator(name = "item_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "item_seq")),
+        @GenericGenerator(name = "category_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "category_seq")),
+        @GenericGenerator(name = "category_closure_seq", strategy = PooledSequenceGenerator.STRATEGY,
+                parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "category_closure_seq")),
+})
+package jpabook.jpashop.domain;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.GenericGenerators;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
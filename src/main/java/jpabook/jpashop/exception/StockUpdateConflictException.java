@@ -0,0 +1,18 @@
+package jpabook.jpashop.exception;
+
+public class StockUpdateConflictException extends RuntimeException {
+    public StockUpdateConflictException() {
+    }
+
+    public StockUpdateConflictException(String message) {
+        super(message);
+    }
+
+    public StockUpdateConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public StockUpdateConflictException(Throwable cause) {
+        super(cause);
+    }
+}
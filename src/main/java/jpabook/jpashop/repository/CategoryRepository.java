@@ -0,0 +1,68 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Item;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.List;
+
+/**
+ * 서브트리 조회는 category_closure 를 이용해서 깊이와 상관없이 쿼리 1번으로 처리한다.
+ * (parent/child 를 따라가면 노드마다 lazy loading 이 발생)
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryRepository {
+    private final EntityManager em;
+
+    public void save(Category category) {
+        em.persist(category);
+    }
+
+    public Category findOne(Long id) {
+        return em.find(Category.class, id);
+    }
+
+    /**
+     * 모든 하위 카테고리 (자기 자신 제외), 가까운 레벨부터
+     */
+    public List<Category> findDescendants(Long categoryId) {
+        return em.createQuery(
+                "select c from CategoryClosure cc" +
+                        " join cc.descendant c" +
+                        " where cc.ancestor.id = :categoryId" +
+                        " and cc.depth > 0" +
+                        " order by cc.depth, c.id", Category.class)
+                .setParameter("categoryId", categoryId)
+                .getResultList();
+    }
+
+    /**
+     * 서브트리(자기 자신 포함)에 속한 모든 상품, 상품 id 순 keyset 페이징
+     * 상품이 여러 하위 카테고리에 걸쳐 있어도 한 번만 나오도록 in 서브쿼리 사용
+     *
+     * @param afterItemId null 이면 첫 페이지, 아니면 이전 페이지의 마지막 상품 id
+     */
+    public List<Item> findItemsInSubtree(Long categoryId, Long afterItemId, int limit) {
+        String jpql = "select i from Item i" +
+                " where i.id in (" +
+                "   select ci.id from CategoryClosure cc" +
+                "   join cc.descendant c" +
+                "   join c.items ci" +
+                "   where cc.ancestor.id = :categoryId)";
+        if (afterItemId != null) {
+            jpql += " and i.id > :afterItemId";
+        }
+        jpql += " order by i.id";
+
+        TypedQuery<Item> query = em.createQuery(jpql, Item.class)
+                .setParameter("categoryId", categoryId);
+        if (afterItemId != null) {
+            query.setParameter("afterItemId", afterItemId);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+}
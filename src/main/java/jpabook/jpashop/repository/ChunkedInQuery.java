@@ -0,0 +1,127 @@
+package jpabook.jpashop.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 큰 in 절 조회를 잘라서 실행
+ *
+ * in :ids 에 id 수천개를 한번에 넣으면 DB 에 따라 바인드 파라미터 수 제한에 걸린다. (오라클 in 절 1000개 등)
+ * 그래서 chunk-size 단위로 잘라서 조회하고 조각별 결과 map 을 호출 스레드에서 합친다.
+ * in 절 모양(파라미터 개수)을 몇 종류로 고정해서 쿼리 플랜 캐시를 재사용하는 건
+ * hibernate.query.in_clause_parameter_padding (2의 제곱수로 패딩) 이 해준다.
+ *
+ * 조각 실행 방식
+ * - 호출 스레드에 트랜잭션이나 OSIV 로 EntityManager(= 커넥션)가 묶여 있으면 그 커넥션으로 순서대로 실행
+ *   커넥션을 쥔 채로 다른 커넥션을 기다리면 동시 요청이 풀 크기만큼 몰렸을 때 서로 커넥션을 기다리며 멈춘다.
+ *   (요청 10개가 커넥션 10개를 잡고 각자 조각용 커넥션을 기다리다 connection-timeout)
+ * - 아무것도 묶여 있지 않은 호출(배치, 벤치마크 등)만 크기가 제한된 스레드풀에서 각자 읽기 전용 트랜잭션으로 병렬 실행
+ *   호출 스레드는 커넥션을 쥐고 있지 않으므로 기다려도 풀을 막지 않는다.
+ *
+ * 주의) 병렬 실행되는 조각들은 호출한 쪽과 다른 트랜잭션이다. (조회 화면용으로만 사용)
+ */
+@Component
+public class ChunkedInQuery {
+    private final int chunkSize;
+    private final EntityManagerFactory emf;
+    private final TransactionTemplate readOnlyTx;
+    private final ThreadPoolExecutor executor;
+
+    public ChunkedInQuery(@Value("${jpashop.query.in-chunk-size:500}") int chunkSize,
+                          @Value("${jpashop.query.in-fetch-parallelism:4}") int parallelism,
+                          EntityManagerFactory emf,
+                          PlatformTransactionManager transactionManager) {
+        this.chunkSize = chunkSize;
+        this.emf = emf;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        // 큐가 차면 호출한 스레드에서 직접 실행 (동시에 쓰는 커넥션 수가 parallelism + 요청 수를 넘지 않음)
+        this.executor = new ThreadPoolExecutor(parallelism, parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(parallelism * 16),
+                r -> {
+                    Thread t = new Thread(r, "in-query-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * @param ids   조회할 id (중복 없이)
+     * @param query id 조각 하나로 조회해서 id 별 map 으로 돌려주는 함수 (EntityManager 는 스프링이 주입한 공유 프록시를 사용해야함)
+     */
+    public <K, V> Map<K, V> fetch(List<K> ids, Function<List<K>, Map<K, V>> query) {
+        if (ids.isEmpty()) {
+            return new HashMap<>();
+        }
+        List<List<K>> chunks = chunks(ids, chunkSize);
+        if (chunks.size() == 1) {
+            return query.apply(chunks.get(0));
+        }
+        if (holdsConnection()) {
+            Map<K, V> result = new HashMap<>(ids.size() * 4 / 3 + 1);
+            chunks.forEach(chunk -> result.putAll(query.apply(chunk)));
+            return result;
+        }
+
+        List<CompletableFuture<Map<K, V>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> readOnlyTx.execute(s -> query.apply(chunk)), executor))
+                .collect(Collectors.toList());
+
+        Map<K, V> result = new HashMap<>(ids.size() * 4 / 3 + 1);
+        try {
+            for (CompletableFuture<Map<K, V>> future : futures) {
+                result.putAll(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(f -> f.cancel(true));
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return result;
+    }
+
+    /**
+     * 트랜잭션 또는 OSIV 의 EntityManager 가 현재 스레드에 묶여 있는지
+     */
+    private boolean holdsConnection() {
+        return TransactionSynchronizationManager.isActualTransactionActive()
+                || TransactionSynchronizationManager.hasResource(emf);
+    }
+
+    static <K> List<List<K>> chunks(List<K> ids, int chunkSize) {
+        List<List<K>> chunks = new ArrayList<>((ids.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < ids.size(); from += chunkSize) {
+            chunks.add(ids.subList(from, Math.min(from + chunkSize, ids.size())));
+        }
+        return chunks;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,23 @@
+package jpabook.jpashop.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+/**
+ * 대량 가격/재고 변경의 상품 1건 (야간 가격 재조정 등)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItemPriceStock {
+    @NotNull
+    private Long id;
+    @Min(0)
+    private int price;
+    @Min(0)
+    private int stockQuantity;
+}
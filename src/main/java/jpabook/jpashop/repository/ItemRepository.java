@@ -2,15 +2,27 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.item.Item;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.jpa.QueryHints;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Collectors;
 
 @Repository
 @RequiredArgsConstructor
 public class ItemRepository {
     private final EntityManager em;
+    private final JdbcTemplate jdbc;
 
     public void save(Item i) {
         if(i.getId() == null) {
@@ -35,8 +47,141 @@ public class ItemRepository {
         return em.find(Item.class, id);
     }
 
+    /**
+     * 여러 상품을 in 쿼리 한 번으로 조회하면서 row 락 (select ... for update)
+     * 여러 트랜잭션이 같은 상품들을 잡을 때 데드락이 나지 않도록 항상 id 순서로 락을 건다.
+     */
+    public List<Item> findAllByIdsForUpdate(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids order by i.id", Item.class)
+                .setParameter("ids", ids)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+    }
+
+    public List<Item> findAllByIds(Collection<Long> ids) {
+        return em.createQuery("select i from Item i where i.id in :ids", Item.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 쿼리 캐시 사용 : 상품 목록은 주문 화면마다 조회하므로 결과(id 목록)를 캐시하고 엔티티는 2차 캐시에서 꺼낸다.
+     * item 테이블이 하이버네이트를 통해 변경되면 캐시된 결과는 자동으로 무효화된다.
+     */
     public List<Item> findAll() {
         return em.createQuery("select i from Item i", Item.class)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
                 .getResultList();
     }
+
+    /**
+     * 영속성 컨텍스트의 상태를 DB의 최신 상태로 덮어씀 (벌크 연산 이후 등)
+     */
+    public void refresh(Item i) {
+        em.refresh(i);
+    }
+
+    /**
+     * select ... for update 로 row 락을 잡고 최신 상태로 다시 읽음
+     */
+    public void refreshForUpdate(Item i) {
+        em.refresh(i, LockModeType.PESSIMISTIC_WRITE);
+    }
+
+    /**
+     * 조건부 원자적 재고 차감
+     *
+     * update item set stock_quantity = stock_quantity - ? where item_id = ? and stock_quantity >= ?
+     * 읽고-계산하고-쓰는 과정이 DB 한 문장 안에서 끝나므로 lost update 가 없다.
+     * version 도 함께 올려줌 (다른 곳의 낙관적 락이 변경을 감지할 수 있도록)
+     *
+     * JPQL 벌크 update 를 쓰면 하이버네이트가 2차 캐시의 item 리전 전체를 비워버리므로 (주문마다 상품 캐시가 날아감)
+     * 같은 트랜잭션의 커넥션을 쓰는 JdbcTemplate 으로 직접 실행한다.
+     * 그래서 이후에 엔티티를 쓰려면 refresh 해야한다. (refresh 는 해당 상품의 캐시만 갱신)
+     *
+     * @return 0 이면 재고 부족
+     */
+    public int decreaseStockIfEnough(Long id, int quantity) {
+        // 아직 insert 되지 않은 변경이 있을 수 있으므로 먼저 반영
+        em.flush();
+        return jdbc.update(
+                "update item set stock_quantity = stock_quantity - ?, version = version + 1 " +
+                        " where item_id = ? and stock_quantity >= ?",
+                quantity, id, quantity);
+    }
+
+    /**
+     * 원자적 재고 증가 (주문 취소시 원복)
+     *
+     * update item set stock_quantity = stock_quantity + ?, version = version + 1 where item_id = ?
+     * decreaseStockIfEnough 와 같은 이유로 JdbcTemplate 으로 실행하므로 이후에 엔티티를 쓰려면 refresh 해야한다.
+     */
+    public int increaseStock(Long id, int quantity) {
+        em.flush();
+        return jdbc.update(
+                "update item set stock_quantity = stock_quantity + ?, version = version + 1 where item_id = ?",
+                quantity, id);
+    }
+
+    /**
+     * version 이 그대로일 때만 재고를 바꾸는 compare-and-set
+     *
+     * @return 0 이면 그 사이에 다른 트랜잭션이 먼저 변경한 것
+     */
+    public int updateStockIfVersion(Long id, int version, int stockQuantity) {
+        em.flush();
+        return jdbc.update(
+                "update item set stock_quantity = ?, version = version + 1 " +
+                        " where item_id = ? and version = ?",
+                stockQuantity, id, version);
+    }
+
+    /**
+     * 가격/재고 일괄 변경 - 상품마다 find + 더티체킹 대신 update 문 하나를 jdbc batch 로 전송
+     *
+     * update item set price = ?, stock_quantity = ?, version = version + 1 where item_id = ?
+     * JPQL 벌크 update 는 2차 캐시의 item 리전 전체를 비우므로 decreaseStockIfEnough 처럼 JdbcTemplate 으로 실행하고
+     * 바뀐 상품만 evict 로 정리한다. (호출하는 쪽에서 evict 해야함)
+     *
+     * @return rows 순서대로 반영된 row 수 (0 이면 없는 상품)
+     */
+    public int[] updatePriceAndStock(List<ItemPriceStock> rows) {
+        em.flush();
+        List<Object[]> args = rows.stream()
+                .map(r -> new Object[]{r.getPrice(), r.getStockQuantity(), r.getId()})
+                .collect(Collectors.toList());
+        return jdbc.batchUpdate(
+                "update item set price = ?, stock_quantity = ?, version = version + 1 where item_id = ?", args);
+    }
+
+    /**
+     * 하이버네이트를 거치지 않고 바뀐 상품을 영속성 컨텍스트와 2차 캐시에서 제거
+     *
+     * - 영속성 컨텍스트 : 이미 올라와 있는 상품은 detach (이후 find 하면 DB 에서 다시 읽음)
+     * - 2차 캐시 : 지금 한 번, 트랜잭션이 끝난 뒤 한 번 더
+     *   커밋 전에 다른 트랜잭션이 예전 값을 읽어서 다시 캐시에 넣을 수 있기 때문
+     * findAll 의 쿼리 캐시는 id 목록만 담고 있고 가격/재고 변경으로 목록이 바뀌지 않으므로 그대로 둔다.
+     */
+    public void evict(Collection<Long> ids) {
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Item.class);
+        for (Long id : ids) {
+            Object managed = session.getPersistenceContextInternal().getEntity(session.generateEntityKey(id, persister));
+            if (managed != null) {
+                em.detach(managed);
+            }
+        }
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        List<Long> evicted = new ArrayList<>(ids);
+        evicted.forEach(id -> cache.evict(Item.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evicted.forEach(id -> cache.evict(Item.class, id));
+                }
+            });
+        }
+    }
 }
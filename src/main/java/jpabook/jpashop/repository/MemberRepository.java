@@ -2,11 +2,14 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.Member;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 @RequiredArgsConstructor
@@ -29,8 +32,66 @@ public class MemberRepository {
         return em.find(Member.class, id);
     }
 
+    /**
+     * 쿼리 캐시 사용 (회원 목록은 거의 바뀌지 않고 주문 화면마다 조회함)
+     */
     public List<Member> findAll() {
-        return em.createQuery("select m from Member m", Member.class).getResultList();
+        return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.HINT_CACHEABLE, true)
+                .getResultList();
+    }
+
+    public List<Member> findAllByIds(Collection<Long> ids) {
+        return em.createQuery("select m from Member m where m.id in :ids", Member.class)
+                .setParameter("ids", ids)
+                .getResultList();
+    }
+
+    /**
+     * 엔티티를 만들지 않고 존재여부만 확인 (id 1건만 조회)
+     */
+    public boolean existsByName(String name) {
+        return !em.createQuery("select m.id from Member m where m.name = :name", Long.class)
+                .setParameter("name", name)
+                .setMaxResults(1)
+                .getResultList()
+                .isEmpty();
+    }
+
+    /**
+     * 이미 있는 이름만 골라서 조회 (대량 가입의 중복 검사를 in 쿼리 한 번으로)
+     * uk_member_name 인덱스만 읽는다.
+     */
+    public List<String> findExistingNames(Collection<String> names) {
+        return em.createQuery("select m.name from Member m where m.name in :names", String.class)
+                .setParameter("names", names)
+                .getResultList();
+    }
+
+    /**
+     * 쌓인 insert 를 jdbc batch 로 내보내고 영속성 컨텍스트를 비운다. (대량 가입용)
+     */
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * 전체 회원 이름 (MemberNameFilter 초기화용)
+     * 엔티티를 영속성 컨텍스트에 올리지 않고 이름만 스트리밍으로 읽는다. 사용 후 close 해야함
+     */
+    public Stream<String> streamAllNames() {
+        return em.createQuery("select m.name from Member m", String.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream();
+    }
+
+    /**
+     * unique 제약조건 위반 등을 이 시점에 확인하기 위해 insert 를 바로 실행
+     * (@Repository 라서 예외가 DataIntegrityViolationException 으로 변환된다)
+     */
+    public void flush() {
+        em.flush();
     }
 
     public List<Member> findByName(String name) {
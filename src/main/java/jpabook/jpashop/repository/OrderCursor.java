@@ -0,0 +1,101 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import javax.persistence.Query;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * keyset(seek) 페이징용 커서 : 마지막으로 내려준 주문의 (orderDate, orderId)
+ *
+ * 클라이언트에는 내부 구조를 노출하지 않도록 base64 로 감싼 불투명한 토큰으로 전달한다.
+ */
+@Getter
+@AllArgsConstructor
+public class OrderCursor {
+    /** 한 페이지 최대 건수 */
+    public static final int MAX_LIMIT = 1000;
+
+    private final LocalDateTime orderDate;
+    private final Long orderId;
+
+    public String encode() {
+        String raw = orderDate + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return 빈 토큰이면 첫 페이지를 의미하므로 null
+     * @throws InvalidCursorException 해석할 수 없는 토큰 (400)
+     */
+    public static OrderCursor decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.valueOf(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("잘못된 커서 : " + token, e);
+        }
+    }
+
+    /**
+     * 최신순(orderDate desc, id desc) 목록에서 이 커서 다음 row 들의 JPQL 조건 - where / and 는 호출하는 쪽에서 붙인다.
+     * orderDate <= 를 and 로 따로 둬야 (orderDate, id) 인덱스 range scan 의 시작 위치가 된다. (or 만 있으면 범위를 못 잡음)
+     *
+     * @param alias orderDate, id 를 가진 엔티티의 별칭 (Order, OrderSummary)
+     */
+    public String predicate(String alias) {
+        return alias + ".orderDate <= :cursorOrderDate" +
+                " and (" + alias + ".orderDate < :cursorOrderDate or " + alias + ".id < :cursorOrderId)";
+    }
+
+    /** predicate 의 파라미터 바인딩 */
+    public <Q extends Query> Q bind(Q query) {
+        query.setParameter("cursorOrderDate", orderDate)
+                .setParameter("cursorOrderId", orderId);
+        return query;
+    }
+
+    /** 요청한 limit 을 1 ~ MAX_LIMIT 로 */
+    public static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * 커서 페이지 조회 - 토큰 해석, limit 보정, 다음 페이지 커서 생성까지
+     *
+     * limit + 1 건을 조회해서 넘치면 다음 페이지가 있는 것으로 보고 마지막 row 로 nextCursor 를 만든다.
+     *
+     * @param query    (커서, 조회할 건수) -> 최신순 결과
+     * @param cursorOf row -> 그 row 의 커서
+     */
+    public static <T> Page<T> page(String token, int limit,
+                                   BiFunction<OrderCursor, Integer, List<T>> query,
+                                   Function<T, OrderCursor> cursorOf) {
+        int size = clampLimit(limit);
+        List<T> rows = query.apply(decode(token), size + 1);
+        if (rows.size() <= size) {
+            return new Page<>(rows, null);
+        }
+        List<T> page = rows.subList(0, size);
+        return new Page<>(page, cursorOf.apply(page.get(size - 1)).encode());
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Page<T> {
+        private final List<T> rows;
+        /** 마지막 페이지면 null */
+        private final String nextCursor;
+    }
+}
@@ -12,46 +12,137 @@ import javax.persistence.TypedQuery;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Repository
 @RequiredArgsConstructor
 public class OrderRepository {
+    private static final int SEARCH_STATUS = 1;
+    private static final int SEARCH_MEMBER_NAME = 1 << 1;
+    private static final int SEARCH_DATE_FROM = 1 << 2;
+    private static final int SEARCH_DATE_TO = 1 << 3;
+    private static final int SEARCH_ITEM = 1 << 4;
+    private static final int MAX_SEARCH_LIMIT = 1000;
+
     private final EntityManager em;
 
+    /** 검색조건 조합(shape) -> JPQL */
+    private final Map<Integer, String> searchJpqlCache = new ConcurrentHashMap<>();
+
     public void save(Order order) {
         em.persist(order);
     }
 
+    /**
+     * 쌓여있는 insert/update 를 jdbc batch 로 내보내고 1차 캐시를 비운다. (대량 처리용)
+     * clear 하지 않으면 영속성 컨텍스트가 계속 커지고 flush 때마다 더티체크 대상도 늘어난다.
+     */
+    public void flushAndClear() {
+        em.flush();
+        em.clear();
+    }
+
     public Order findOne(Long id) {
         return em.find(Order.class, id);
     }
 
     // 동적 쿼리를 어떻게 해결할까?
+    /*
+    첫번째 방법 : if~else 로 노가다로 만들까?
+    -> 코드가 엄청나게 장황해지고 버그 양산 NO!!
+
+    두번째 방법 : JPA Criteria - 동적으로 JPQL 을 만들어주는 표준 기술
+    -> if~else 보다는 좋지만 여전히 가독성이 너무 낮아 유지보수 HELL
+    -> 그래서 실무에서 안 씀
+    -> 성능면에서도 호출할 때마다 Criteria 트리를 새로 만들고 JPQL 로 변환한다.
+
+    결론 : QueryDSL 로 짠다.
+    -> 가독성이 높음 -> 유지보수성 용이함
+
+    여기서는 QueryDSL 없이 조건 조합(shape)별로 JPQL 문자열을 한 번만 만들어서 캐시해두는 방식으로 구현
+    - 같은 조합이면 항상 같은 JPQL 문자열 -> 하이버네이트 쿼리 플랜 캐시, DB 의 실행계획 캐시도 재사용
+    - 값은 모두 바인드 파라미터
+    - 인덱스를 탈 수 있는 형태로만 조건을 만든다.
+      - 회원명 : like '%name%' 는 인덱스를 못 타므로 앞부분 일치 like 'name%' (uk_member_name 인덱스 range scan)
+      - 상태 : idx_orders_status_date, 주문일시 : idx_orders_order_date_id
+      - 상품 : 조인하면 주문이 중복되므로 exists 서브쿼리
+     */
     public List<Order> findAll(OrderSearch orderSearch) {
-        /* status, name이 없으면 조건에서 빠져야한다!
-        em.createQuery("select o from Order o join o.member m"
-                                + " where o.status = :status "
-                                + " and m.name like :name",
-                        Order.class)
-                .setParameter("status", orderSearch.getOrderStatus())
-                .setParameter("name", orderSearch.getMemberName())
-                //.setFirstResult(0) // 페이징에 사용
-                .setMaxResults(1000)
+        int shape = searchShape(orderSearch);
+        String jpql = searchJpqlCache.computeIfAbsent(shape, OrderRepository::buildSearchJpql);
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class);
+        if ((shape & SEARCH_STATUS) != 0) {
+            query.setParameter("status", orderSearch.getOrderStatus());
+        }
+        if ((shape & SEARCH_MEMBER_NAME) != 0) {
+            query.setParameter("memberName", escapeLike(orderSearch.getMemberName()) + "%");
+        }
+        if ((shape & SEARCH_DATE_FROM) != 0) {
+            query.setParameter("orderDateFrom", orderSearch.getOrderDateFrom());
+        }
+        if ((shape & SEARCH_DATE_TO) != 0) {
+            query.setParameter("orderDateTo", orderSearch.getOrderDateTo());
+        }
+        if ((shape & SEARCH_ITEM) != 0) {
+            query.setParameter("itemId", orderSearch.getItemId());
+        }
+
+        int limit = Math.max(1, Math.min(orderSearch.getLimit(), MAX_SEARCH_LIMIT));
+        return query.setFirstResult(Math.max(0, orderSearch.getOffset()))
+                .setMaxResults(limit)
                 .getResultList();
-         */
+    }
+
+    private static int searchShape(OrderSearch orderSearch) {
+        int shape = 0;
+        if (orderSearch.getOrderStatus() != null) {
+            shape |= SEARCH_STATUS;
+        }
+        if (StringUtils.hasText(orderSearch.getMemberName())) {
+            shape |= SEARCH_MEMBER_NAME;
+        }
+        if (orderSearch.getOrderDateFrom() != null) {
+            shape |= SEARCH_DATE_FROM;
+        }
+        if (orderSearch.getOrderDateTo() != null) {
+            shape |= SEARCH_DATE_TO;
+        }
+        if (orderSearch.getItemId() != null) {
+            shape |= SEARCH_ITEM;
+        }
+        return shape;
+    }
 
-        /*
-        첫번째 방법 : if~else 로 노가다로 만들까?
-        -> 코드가 엄청나게 장황해지고 버그 양산 NO!!
+    private static String buildSearchJpql(int shape) {
+        List<String> where = new ArrayList<>();
+        if ((shape & SEARCH_STATUS) != 0) {
+            where.add("o.status = :status");
+        }
+        if ((shape & SEARCH_MEMBER_NAME) != 0) {
+            where.add("m.name like :memberName escape '!'");
+        }
+        if ((shape & SEARCH_DATE_FROM) != 0) {
+            where.add("o.orderDate >= :orderDateFrom");
+        }
+        if ((shape & SEARCH_DATE_TO) != 0) {
+            where.add("o.orderDate < :orderDateTo");
+        }
+        if ((shape & SEARCH_ITEM) != 0) {
+            where.add("exists (select oi.id from OrderItem oi where oi.order = o and oi.item.id = :itemId)");
+        }
 
-        두번째 방법 : JPA Criteria - 동적으로 JPQL 을 만들어주는 표준 기술
-        -> if~else 보다는 좋지만 여전히 가독성이 너무 낮아 유지보수 HELL
-        -> 그래서 실무에서 안 씀
+        StringBuilder jpql = new StringBuilder("select o from Order o join fetch o.member m join fetch o.delivery d");
+        if (!where.isEmpty()) {
+            jpql.append(" where ").append(String.join(" and ", where));
+        }
+        return jpql.append(" order by o.orderDate desc, o.id desc").toString();
+    }
 
-        결론 : QueryDSL 로 짠다.
-        -> 가독성이 높음 -> 유지보수성 용이함
-         */
-        return null;
+    /** like 의 와일드카드 문자를 그대로 검색하도록 escape */
+    private static String escapeLike(String value) {
+        return value.replace("!", "!!").replace("%", "!%").replace("_", "!_");
     }
 
     /*
@@ -127,6 +218,33 @@ public class OrderRepository {
                 .getResultList();
     }
 
+    /**
+     * keyset(seek) 페이징
+     *
+     * offset 방식은 DB가 offset 만큼 읽고 버려야하므로 뒤 페이지로 갈수록 느려진다.
+     * 대신 마지막으로 본 (orderDate, id) 이후부터 읽으면 idx_orders_order_date_id 인덱스를 타고
+     * 바로 해당 위치로 찾아가므로 몇번째 페이지든 비용이 일정하다.
+     *
+     * 컬렉션(orderItems)은 여전히 default_batch_fetch_size 로 in 쿼리 조회
+     *
+     * @param cursor null 이면 첫 페이지
+     */
+    public List<Order> findAllWithMemberDelivery(OrderCursor cursor, int limit) {
+        String jpql = "select o from Order o " +
+                " join fetch o.member m " +
+                " join fetch o.delivery d ";
+        if (cursor != null) {
+            jpql += " where " + cursor.predicate("o") + " ";
+        }
+        jpql += " order by o.orderDate desc, o.id desc";
+
+        TypedQuery<Order> query = em.createQuery(jpql, Order.class);
+        if (cursor != null) {
+            cursor.bind(query);
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
     /**
      * JPQL distinct의 기능
      * 1. sql에 distinct 를 날려줌
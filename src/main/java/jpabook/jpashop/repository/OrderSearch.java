@@ -2,9 +2,32 @@ package jpabook.jpashop.repository;
 
 import jpabook.jpashop.domain.OrderStatus;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.time.LocalDateTime;
+
+/**
+ * 주문 검색 조건 (값이 없는 조건은 검색에서 빠진다)
+ *
+ * 주문 목록 화면(findAllByCriteria)은 회원명, 상태만 사용하고
+ * 나머지 조건과 offset/limit 은 검색 API(findAll) 에서만 사용한다.
+ */
 @Data
 public class OrderSearch {
+    /** 회원명 - 화면은 부분 일치, 검색 API 는 앞부분 일치 (prefix) */
     private String memberName;
     private OrderStatus orderStatus;
+
+    /** 주문일시 >= orderDateFrom */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateFrom;
+    /** 주문일시 < orderDateTo */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime orderDateTo;
+
+    /** 이 상품을 포함한 주문 */
+    private Long itemId;
+
+    private int offset = 0;
+    private int limit = 100;
 }
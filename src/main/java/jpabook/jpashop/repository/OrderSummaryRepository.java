@@ -0,0 +1,77 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.OrderSummary;
+import jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class OrderSummaryRepository {
+    private static final TupleMapper<OrderSimpleQueryDto> SIMPLE_MAPPER = OrderSimpleQueryDto::fromRow;
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void save(OrderSummary summary) {
+        em.persist(summary);
+    }
+
+    public OrderSummary findOne(Long orderId) {
+        return em.find(OrderSummary.class, orderId);
+    }
+
+    /**
+     * 최신순 keyset 페이징, order_summary 한 테이블만 idx_order_summary_date 인덱스로 읽는다.
+     *
+     * @param cursor null 이면 첫 페이지
+     */
+    public List<OrderSimpleQueryDto> findPage(OrderCursor cursor, int limit) {
+        String jpql = "select s.id, s.memberName, s.orderDate, s.status, s.address " +
+                "from OrderSummary s ";
+        if (cursor != null) {
+            jpql += "where " + cursor.predicate("s") + " ";
+        }
+        jpql += "order by s.orderDate desc, s.id desc";
+
+        Query query = em.createQuery(jpql);
+        if (cursor != null) {
+            cursor.bind(query);
+        }
+        return SIMPLE_MAPPER.list(query.setMaxResults(limit));
+    }
+
+    /** 회원명이 바뀌면 그 회원의 주문 요약도 함께 (idx_order_summary_member) */
+    public int updateMemberName(Long memberId, String name) {
+        return em.createQuery("update OrderSummary s set s.memberName = :name where s.memberId = :memberId")
+                .setParameter("name", name)
+                .setParameter("memberId", memberId)
+                .executeUpdate();
+    }
+
+    /**
+     * 전체 재생성 - 원본 테이블에서 insert ... select 한 문장으로 다시 채운다. (row 단위로 엔티티를 만들지 않음)
+     *
+     * truncate 는 DB에 따라 트랜잭션 밖에서 바로 커밋되므로 delete 사용 (실패하면 이전 상태로 롤백)
+     * 호출한 트랜잭션의 영속성 컨텍스트는 비워진다.
+     *
+     * @return 생성된 row 수
+     */
+    public int rebuild() {
+        em.flush();
+        jdbcTemplate.update("delete from order_summary");
+        int rows = jdbcTemplate.update(
+                "insert into order_summary (order_id, member_id, member_name, order_date, status, city, street, zipcode) " +
+                        "select o.order_id, m.member_id, m.name, o.order_date, o.status, d.city, d.street, d.zipcode " +
+                        "from orders o " +
+                        "join member m on m.member_id = o.member_id " +
+                        "join delivery d on d.delivery_id = o.delivery_id");
+        em.clear();
+        return rows;
+    }
+}
@@ -0,0 +1,38 @@
+package jpabook.jpashop.repository;
+
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * 스칼라 조회 결과(Object[]) 한 줄 -> DTO
+ *
+ * JPQL 의 "select new 패키지.Dto(...)" 는 하이버네이트가 row 마다 리플렉션(Constructor.newInstance)으로 생성자를 호출한다.
+ * 대신 컬럼만 select 하고 컴파일된 람다/메서드 참조(Dto::fromRow)로 직접 생성자를 호출한다.
+ * - row 당 리플렉션 호출, 인자 배열 복사가 없다.
+ * - JPQL 에 DTO 의 전체 클래스명을 쓰지 않아도 된다. (패키지를 옮겨도 쿼리 문자열이 깨지지 않음)
+ *
+ * select 절의 컬럼 순서와 fromRow 의 인덱스가 맞아야 하므로 둘을 같이 고친다.
+ */
+@FunctionalInterface
+public interface TupleMapper<T> {
+
+    T map(Object[] row);
+
+    default List<T> list(Query query) {
+        List<?> rows = query.getResultList();
+        List<T> result = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            result.add(map((Object[]) row));
+        }
+        return result;
+    }
+
+    /** 호출한 쪽에서 close 해야 한다. (try-with-resources) */
+    @SuppressWarnings("unchecked")
+    default Stream<T> stream(Query query) {
+        Stream<Object[]> rows = query.getResultStream();
+        return rows.map(this::map);
+    }
+}
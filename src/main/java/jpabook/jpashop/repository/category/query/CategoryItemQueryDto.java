@@ -0,0 +1,24 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 카테고리별 상품 목록 한 줄 (상품이 속한 카테고리들 포함)
+ */
+@Data
+public class CategoryItemQueryDto {
+    private Long itemId;
+    private String name;
+    private int price;
+    private int stockQuantity;
+    private List<CategoryRefQueryDto> categories;
+
+    public CategoryItemQueryDto(Long itemId, String name, int price, int stockQuantity) {
+        this.itemId = itemId;
+        this.name = name;
+        this.price = price;
+        this.stockQuantity = stockQuantity;
+    }
+}
@@ -0,0 +1,86 @@
+package jpabook.jpashop.repository.category.query;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 카테고리 -> 상품 목록 화면용 조회
+ *
+ * category_item 은 엔티티가 아니라 JPQL 로는 조인 테이블만 따로 읽을 수 없다.
+ * (JPQL 로 짜면 category 나 item 테이블까지 항상 조인됨) 그래서 조인 테이블 기준 쿼리는 native 로 작성
+ */
+@Repository
+@RequiredArgsConstructor
+public class CategoryItemQueryRepository {
+    private final EntityManager em;
+
+    /**
+     * 카테고리의 상품 한 페이지 (상품 id 순 keyset 페이징) + 각 상품이 속한 카테고리들
+     *
+     * 1. category_item 의 (category_id, item_id) 인덱스에서 커서 위치부터 limit 만큼만 읽고 item 과 조인
+     * 2. 그 페이지 상품들의 카테고리를 in 쿼리 한번으로 조회 ((item_id, category_id) 인덱스)
+     * 인기 카테고리라도 페이지 크기만큼만 읽으므로 쿼리 2번, 비용 일정
+     *
+     * @param afterItemId null 이면 첫 페이지, 아니면 이전 페이지의 마지막 상품 id
+     */
+    public List<CategoryItemQueryDto> findCategoryItems(Long categoryId, Long afterItemId, int limit) {
+        List<CategoryItemQueryDto> result = findItemPage(categoryId, afterItemId, limit);
+        if (result.isEmpty()) {
+            return result;
+        }
+
+        List<Long> itemIds = result.stream()
+                .map(CategoryItemQueryDto::getItemId)
+                .collect(Collectors.toList());
+        Map<Long, List<CategoryRefQueryDto>> categoryMap = findCategoryMap(itemIds);
+
+        result.forEach(i -> i.setCategories(categoryMap.getOrDefault(i.getItemId(), Collections.emptyList())));
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CategoryItemQueryDto> findItemPage(Long categoryId, Long afterItemId, int limit) {
+        String sql = "select i.item_id, i.name, i.price, i.stock_quantity" +
+                " from category_item ci" +
+                " join item i on i.item_id = ci.item_id" +
+                " where ci.category_id = :categoryId";
+        if (afterItemId != null) {
+            sql += " and ci.item_id > :afterItemId";
+        }
+        sql += " order by ci.item_id";
+
+        Query query = em.createNativeQuery(sql)
+                .setParameter("categoryId", categoryId);
+        if (afterItemId != null) {
+            query.setParameter("afterItemId", afterItemId);
+        }
+        List<Object[]> rows = query.setMaxResults(limit).getResultList();
+        return rows.stream()
+                .map(r -> new CategoryItemQueryDto(((Number) r[0]).longValue(), (String) r[1],
+                        ((Number) r[2]).intValue(), ((Number) r[3]).intValue()))
+                .collect(Collectors.toList());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<Long, List<CategoryRefQueryDto>> findCategoryMap(List<Long> itemIds) {
+        List<Object[]> rows = em.createNativeQuery(
+                        "select ci.item_id, c.category_id, c.name" +
+                                " from category_item ci" +
+                                " join category c on c.category_id = ci.category_id" +
+                                " where ci.item_id in (:itemIds)" +
+                                " order by ci.item_id, c.category_id")
+                .setParameter("itemIds", itemIds)
+                .getResultList();
+
+        return rows.stream()
+                .map(r -> new CategoryRefQueryDto(((Number) r[0]).longValue(), ((Number) r[1]).longValue(), (String) r[2]))
+                .collect(Collectors.groupingBy(CategoryRefQueryDto::getItemId));
+    }
+}
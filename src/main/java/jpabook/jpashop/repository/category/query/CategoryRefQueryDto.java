@@ -0,0 +1,14 @@
+package jpabook.jpashop.repository.category.query;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class CategoryRefQueryDto {
+    @JsonIgnore
+    private Long itemId;
+    private Long categoryId;
+    private String name;
+}
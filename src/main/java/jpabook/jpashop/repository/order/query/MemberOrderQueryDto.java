@@ -0,0 +1,24 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 회원별 주문내역 한 줄
+ * idx_orders_member_date 인덱스에 있는 컬럼만 담는다. (covering index)
+ */
+@Data
+@AllArgsConstructor
+public class MemberOrderQueryDto {
+    private Long orderId;
+    private LocalDateTime orderDate;
+    private OrderStatus orderStatus;
+
+    /** select o.id, o.orderDate, o.status (TupleMapper) */
+    public static MemberOrderQueryDto fromRow(Object[] r) {
+        return new MemberOrderQueryDto((Long) r[0], (LocalDateTime) r[1], (OrderStatus) r[2]);
+    }
+}
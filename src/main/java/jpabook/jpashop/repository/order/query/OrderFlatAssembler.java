@@ -0,0 +1,70 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * order by o.id 로 정렬된 flat row 들을 OrderQueryDto 로 묶어주는 조립기 (v6용)
+ *
+ * groupingBy 는 row 마다 키용 OrderQueryDto 를 새로 만들어 해싱하고, 그룹마다 결과 DTO 를 또 만들고, 순서도 깨진다.
+ * 정렬되어 있다면 같은 주문의 row 는 연속으로 나오므로 주문 id 가 바뀌는 시점에만 새 DTO 를 만들면 된다.
+ * - 해싱 없음, 주문당 DTO 1개, 조회 순서 유지
+ * - 주문 단위로 끊을 수 있으므로 limit 이 가능하다. (row 단위 limit 은 주문 중간이 잘리므로 불가)
+ *
+ * 상태를 가지므로 조회 1번마다 새로 만들어서 쓴다.
+ */
+public class OrderFlatAssembler {
+    private OrderQueryDto current;
+
+    /**
+     * @return 새로운 주문의 row 가 들어와서 직전 주문이 완성되면 그 주문, 아니면 null
+     */
+    public OrderQueryDto add(Long orderId, String name, LocalDateTime orderDate, OrderStatus orderStatus, Address address,
+                             String itemName, int orderPrice, int count) {
+        OrderQueryDto completed = null;
+        if (current == null || !current.getOrderId().equals(orderId)) {
+            completed = current;
+            current = new OrderQueryDto(orderId, name, orderDate, orderStatus, address, new ArrayList<>());
+        }
+        current.getOrderItems().add(new OrderItemQueryDto(orderId, itemName, orderPrice, count));
+        return completed;
+    }
+
+    public OrderQueryDto add(OrderFlatDto row) {
+        return add(row.getOrderId(), row.getName(), row.getOrderDate(), row.getOrderStatus(), row.getAddress(),
+                row.getItemName(), row.getOrderPrice(), row.getCount());
+    }
+
+    /**
+     * @return 아직 내보내지 않은 마지막 주문 (없으면 null)
+     */
+    public OrderQueryDto finish() {
+        OrderQueryDto last = current;
+        current = null;
+        return last;
+    }
+
+    /**
+     * @param maxOrders 주문 수 기준 최대 건수. 채워지면 남은 row 는 읽지 않고 멈춘다.
+     */
+    public static List<OrderQueryDto> assemble(Iterator<OrderFlatDto> rows, int maxOrders) {
+        OrderFlatAssembler assembler = new OrderFlatAssembler();
+        List<OrderQueryDto> result = new ArrayList<>();
+        while (result.size() < maxOrders && rows.hasNext()) {
+            OrderQueryDto completed = assembler.add(rows.next());
+            if (completed != null) {
+                result.add(completed);
+            }
+        }
+        OrderQueryDto last = assembler.finish();
+        if (last != null && result.size() < maxOrders) {
+            result.add(last);
+        }
+        return result;
+    }
+}
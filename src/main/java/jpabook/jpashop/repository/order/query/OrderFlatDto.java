@@ -19,4 +19,10 @@ public class OrderFlatDto {
     private String itemName;
     private int orderPrice;
     private int count;
+
+    /** select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count (TupleMapper) */
+    public static OrderFlatDto fromRow(Object[] r) {
+        return new OrderFlatDto((Long) r[0], (String) r[1], (LocalDateTime) r[2], (OrderStatus) r[3], (Address) r[4],
+                (String) r[5], (Integer) r[6], (Integer) r[7]);
+    }
 }
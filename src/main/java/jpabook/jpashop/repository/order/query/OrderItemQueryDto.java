@@ -10,4 +10,9 @@ public class OrderItemQueryDto {
     private String itemName;
     private int orderPrice;
     private int count;
+
+    /** select oi.order.id, i.name, oi.orderPrice, oi.count (TupleMapper) */
+    public static OrderItemQueryDto fromRow(Object[] r) {
+        return new OrderItemQueryDto((Long) r[0], (String) r[1], (Integer) r[2], (Integer) r[3]);
+    }
 }
@@ -27,4 +27,9 @@ public class OrderQueryDto {
         this.orderStatus = orderStatus;
         this.address = address;
     }
+
+    /** select o.id, m.name, o.orderDate, o.status, d.address (TupleMapper) */
+    public static OrderQueryDto fromRow(Object[] r) {
+        return new OrderQueryDto((Long) r[0], (String) r[1], (LocalDateTime) r[2], (OrderStatus) r[3], (Address) r[4]);
+    }
 }
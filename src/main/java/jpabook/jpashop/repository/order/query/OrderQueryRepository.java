@@ -1,20 +1,44 @@
 package jpabook.jpashop.repository.order.query;
 
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.ChunkedInQuery;
+import jpabook.jpashop.repository.OrderCursor;
+import jpabook.jpashop.repository.TupleMapper;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * 특정화면에 종속된 쿼리들은 이처럼 별도이 repository 로 분리
+ *
+ * DTO 조회는 select new 대신 컬럼만 조회해서 TupleMapper 로 변환 (row 마다 리플렉션 생성자 호출이 없음)
  */
 @Repository
 @RequiredArgsConstructor
 public class OrderQueryRepository {
+    private static final int STREAM_FETCH_SIZE = 1000;
+    private static final TupleMapper<OrderQueryDto> ORDER_MAPPER = OrderQueryDto::fromRow;
+    private static final TupleMapper<OrderItemQueryDto> ORDER_ITEM_MAPPER = OrderItemQueryDto::fromRow;
+    private static final TupleMapper<OrderFlatDto> ORDER_FLAT_MAPPER = OrderFlatDto::fromRow;
+    private static final TupleMapper<MemberOrderQueryDto> MEMBER_ORDER_MAPPER = MemberOrderQueryDto::fromRow;
+
     private final EntityManager em;
+    private final EntityManagerFactory emf;
+    private final ChunkedInQuery chunkedInQuery;
 
 
     public List<OrderQueryDto> findOrderQueryDtos() {
@@ -29,22 +53,48 @@ public class OrderQueryRepository {
     }
 
     private List<OrderItemQueryDto> findOrderItems(Long orderId) {
-        return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.orderPrice) " +
+        return ORDER_ITEM_MAPPER.list(em.createQuery(
+                "select oi.order.id, i.name, oi.orderPrice, oi.count " +
                         "from OrderItem oi " +
                         "join oi.item i " +
-                        "where oi.order.id = :orderId", OrderItemQueryDto.class)
-                .setParameter("orderId", orderId)
-                .getResultList();
+                        "where oi.order.id = :orderId")
+                .setParameter("orderId", orderId));
     }
 
     private List<OrderQueryDto> findOrders() {
-        return em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
-                                "from Order o " +
-                                "join o.member m " +
-                                "join o.delivery d", OrderQueryDto.class)
-                .getResultList();
+        return ORDER_MAPPER.list(em.createQuery(
+                "select o.id, m.name, o.orderDate, o.status, d.address " +
+                        "from Order o " +
+                        "join o.member m " +
+                        "join o.delivery d"));
+    }
+
+    /**
+     * 회원별 주문내역 (최신순, keyset 페이징)
+     *
+     * where member_id = ? and (order_date, order_id) < (?, ?) order by order_date desc, order_id desc
+     * idx_orders_member_date 인덱스의 해당 회원 구간을 커서 위치부터 limit 만큼만 읽으므로
+     * 주문이 아무리 많은 회원이라도, 몇번째 페이지라도 비용이 일정하다.
+     *
+     * o.member.id 는 FK 컬럼이라 member 와 조인하지 않는다.
+     *
+     * @param cursor null 이면 첫 페이지
+     */
+    public List<MemberOrderQueryDto> findMemberOrders(Long memberId, OrderCursor cursor, int limit) {
+        String jpql = "select o.id, o.orderDate, o.status " +
+                "from Order o " +
+                "where o.member.id = :memberId ";
+        if (cursor != null) {
+            jpql += "and " + cursor.predicate("o") + " ";
+        }
+        jpql += "order by o.orderDate desc, o.id desc";
+
+        Query query = em.createQuery(jpql)
+                .setParameter("memberId", memberId);
+        if (cursor != null) {
+            cursor.bind(query);
+        }
+        return MEMBER_ORDER_MAPPER.list(query.setMaxResults(limit));
     }
 
     public List<OrderQueryDto> findAllByDto_optimization() {
@@ -58,14 +108,20 @@ public class OrderQueryRepository {
         return result;
     }
 
+    /**
+     * 주문이 많으면 in 절을 잘라서 조회 (ChunkedInQuery 참고)
+     */
     private Map<Long, List<OrderItemQueryDto>> findOrderItemMap(List<Long> orderIds) {
-        List<OrderItemQueryDto> orderItems = em.createQuery(
-                        "select new jpabook.jpashop.repository.order.query.OrderItemQueryDto(oi.order.id, i.name, oi.orderPrice, oi.orderPrice) " +
+        return chunkedInQuery.fetch(orderIds, this::findOrderItemChunk);
+    }
+
+    private Map<Long, List<OrderItemQueryDto>> findOrderItemChunk(List<Long> orderIds) {
+        List<OrderItemQueryDto> orderItems = ORDER_ITEM_MAPPER.list(em.createQuery(
+                        "select oi.order.id, i.name, oi.orderPrice, oi.count " +
                                 "from OrderItem oi " +
                                 "join oi.item i " +
-                                "where oi.order.id in :orderIds", OrderItemQueryDto.class)
-                .setParameter("orderIds", orderIds)
-                .getResultList();
+                                "where oi.order.id in :orderIds")
+                .setParameter("orderIds", orderIds));
 
         Map<Long, List<OrderItemQueryDto>> orderItemMap = orderItems.stream()
                 .collect(Collectors.groupingBy(OrderItemQueryDto::getOrderId));
@@ -79,14 +135,79 @@ public class OrderQueryRepository {
         return orderIds;
     }
 
+    /**
+     * 같은 주문의 row 가 연속으로 나오도록 o.id 로 정렬 (OrderFlatAssembler 가 이 순서에 의존함)
+     */
     public List<OrderFlatDto> findAllByDto_flat() {
+        return ORDER_FLAT_MAPPER.list(flatQuery());
+    }
+
+    /**
+     * v6 + 주문 수 기준 limit
+     *
+     * 결과를 stream(scroll) 으로 읽으면서 조립하다가 maxOrders 가 채워지면 나머지 row 는 읽지 않는다.
+     */
+    public List<OrderQueryDto> findAllByDto_flat(int maxOrders) {
+        try (Stream<OrderFlatDto> rows = ORDER_FLAT_MAPPER.stream(flatQuery())) {
+            return OrderFlatAssembler.assemble(rows.iterator(), maxOrders);
+        }
+    }
+
+    private Query flatQuery() {
         return em.createQuery(
-                "select new jpabook.jpashop.repository.order.query.OrderFlatDto(o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count) " +
+                "select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count " +
                         "from Order o " +
                         "join o.member m " +
                         "join o.delivery d " +
                         "join o.orderItems oi " +
-                        "join oi.item i", OrderFlatDto.class)
-                .getResultList();
+                        "join oi.item i " +
+                        "order by o.id, oi.id");
+    }
+
+    /**
+     * 전체 주문을 List 에 모으지 않고 한건씩 consumer 로 넘겨주는 스트리밍 조회 (export 용)
+     *
+     * - StatelessSession : 영속성 컨텍스트(1차 캐시)에 아무것도 쌓지 않음
+     * - FORWARD_ONLY scroll + fetchSize : 드라이버가 fetchSize 만큼씩만 가져옴
+     *   (mysql 같은 경우 fetchSize 를 Integer.MIN_VALUE 로 줘야 실제로 스트리밍됨 - DB마다 다름)
+     * - order by o.id 로 정렬되어 있으므로 OrderFlatAssembler 로 연속된 row 만 하나의 주문으로 묶으면 된다.
+     *
+     * 그래서 테이블 크기와 상관없이 힙에는 fetchSize 만큼의 row 와 주문 1건만 올라간다.
+     * consumer 는 scroll 이 열려있는 동안 호출되므로 오래 걸리면 그만큼 커넥션을 점유한다.
+     */
+    public void streamAllByDto_flat(Consumer<OrderQueryDto> consumer) {
+        StatelessSession session = emf.unwrap(SessionFactory.class).openStatelessSession();
+        try {
+            ScrollableResults rows = session.createQuery(
+                            "select o.id, m.name, o.orderDate, o.status, d.address, i.name, oi.orderPrice, oi.count " +
+                                    "from Order o " +
+                                    "join o.member m " +
+                                    "join o.delivery d " +
+                                    "join o.orderItems oi " +
+                                    "join oi.item i " +
+                                    "order by o.id, oi.id")
+                    .setFetchSize(STREAM_FETCH_SIZE)
+                    .setReadOnly(true)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                OrderFlatAssembler assembler = new OrderFlatAssembler();
+                while (rows.next()) {
+                    Object[] r = rows.get();
+                    OrderQueryDto completed = assembler.add((Long) r[0], (String) r[1], (LocalDateTime) r[2], (OrderStatus) r[3], (Address) r[4],
+                            (String) r[5], (Integer) r[6], (Integer) r[7]);
+                    if (completed != null) {
+                        consumer.accept(completed);
+                    }
+                }
+                OrderQueryDto last = assembler.finish();
+                if (last != null) {
+                    consumer.accept(last);
+                }
+            } finally {
+                rows.close();
+            }
+        } finally {
+            session.close();
+        }
     }
 }
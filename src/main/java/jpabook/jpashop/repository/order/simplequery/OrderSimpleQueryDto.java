@@ -27,4 +27,9 @@ public class OrderSimpleQueryDto {
         this.orderStatus = orderStatus;
         this.address = address;
     }
+
+    /** select 주문id, 회원명, 주문일시, 주문상태, 주소 (TupleMapper) */
+    public static OrderSimpleQueryDto fromRow(Object[] r) {
+        return new OrderSimpleQueryDto((Long) r[0], (String) r[1], (LocalDateTime) r[2], (OrderStatus) r[3], (Address) r[4]);
+    }
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package jpabook.jpashop.repository.order.simplequery;
 
+import jpabook.jpashop.repository.TupleMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Repository;
 
@@ -9,6 +10,8 @@ import java.util.List;
 @Repository
 @RequiredArgsConstructor
 public class OrderSimpleQueryRepoistory {
+    private static final TupleMapper<OrderSimpleQueryDto> MAPPER = OrderSimpleQueryDto::fromRow;
+
     private final EntityManager em;
 
     /**
@@ -25,6 +28,7 @@ public class OrderSimpleQueryRepoistory {
      * 또한 API스펙인 OrderSimpleQueryDto 가 JQPL에 등장해버림
      * 논리적으로 계층이 섞여버렸다고 볼 수 있음.
      * -> 이 문제는 화면용 쿼리만 담당하는 repository 를 분리하여 완화할 수 있음.
+     * -> select new 대신 컬럼만 조회하고 TupleMapper 로 변환 (JPQL 에서 DTO 가 빠지고, row 마다 리플렉션도 없음)
      *
      * v3와 v4는 trade-off가 있음
      * 일단 v3로 하고 성능 등의 문제가 있을 때 v4를 고려하자
@@ -45,11 +49,10 @@ public class OrderSimpleQueryRepoistory {
      * </pre>
      */
     public List<OrderSimpleQueryDto> findOrderDtos() {
-        return em.createQuery(
-                        "select new jpabook.jpashop.repository.order.simplequery.OrderSimpleQueryDto(o.id, m.name, o.orderDate, o.status, d.address) " +
-                                " from Order o " +
-                                " join o.member m " +
-                                " join o.delivery d ", OrderSimpleQueryDto.class)
-                .getResultList();
+        return MAPPER.list(em.createQuery(
+                "select o.id, m.name, o.orderDate, o.status, d.address " +
+                        " from Order o " +
+                        " join o.member m " +
+                        " join o.delivery d "));
     }
 }
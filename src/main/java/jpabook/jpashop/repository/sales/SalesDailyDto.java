@@ -0,0 +1,17 @@
+package jpabook.jpashop.repository.sales;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+public class SalesDailyDto {
+    private LocalDate salesDate;
+    private OrderStatus status;
+    private long orderCount;
+    private long units;
+    private long revenue;
+}
@@ -0,0 +1,14 @@
+package jpabook.jpashop.repository.sales;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SalesItemDto {
+    private Long itemId;
+    private String itemName;
+    private long orderCount;
+    private long units;
+    private long revenue;
+}
@@ -0,0 +1,210 @@
+package jpabook.jpashop.repository.sales;
+
+import jpabook.jpashop.domain.OrderStatus;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 매출 롤업 (sales_daily, sales_daily_item) 갱신/조회
+ *
+ * 갱신은 "컬럼 = 컬럼 + ?" 한 문장으로 해서 동시에 주문이 들어와도 값이 유실되지 않는다. (재고 차감과 같은 방식)
+ * 조회는 롤업 테이블만 읽는 것과, 원본(orders + order_item)을 SUM 하는 것(live) 두 가지
+ */
+@Repository
+@RequiredArgsConstructor
+public class SalesRollupRepository {
+    // 원본 집계 - live 조회와 rebuild 에서 같이 사용
+    private static final String DAILY_FROM_SOURCE =
+            "select cast(o.order_date as date) as sales_date, o.status, count(distinct o.order_id) as order_count, " +
+                    "sum(oi.count) as units, sum(oi.order_price * oi.count) as revenue " +
+                    "from orders o join order_item oi on oi.order_id = o.order_id ";
+    private static final String DAILY_GROUP_BY = "group by cast(o.order_date as date), o.status ";
+
+    private static final String DAILY_ITEM_FROM_SOURCE =
+            "select cast(o.order_date as date) as sales_date, oi.item_id, o.status, count(distinct o.order_id) as order_count, " +
+                    "sum(oi.count) as units, sum(oi.order_price * oi.count) as revenue " +
+                    "from orders o join order_item oi on oi.order_id = o.order_id ";
+    private static final String DAILY_ITEM_GROUP_BY = "group by cast(o.order_date as date), oi.item_id, o.status ";
+
+    private final EntityManager em;
+    private final JdbcTemplate jdbcTemplate;
+
+    public void addDaily(LocalDate day, OrderStatus status, long orders, long units, long revenue) {
+        upsert("update sales_daily set order_count = order_count + ?, units = units + ?, revenue = revenue + ? " +
+                        "where sales_date = ? and status = ?",
+                new Object[]{orders, units, revenue, Date.valueOf(day), status.name()},
+                "insert into sales_daily (sales_date, status, order_count, units, revenue) values (?, ?, ?, ?, ?)",
+                new Object[]{Date.valueOf(day), status.name(), orders, units, revenue});
+    }
+
+    public void addDailyItem(LocalDate day, Long itemId, OrderStatus status, long orders, long units, long revenue) {
+        upsert("update sales_daily_item set order_count = order_count + ?, units = units + ?, revenue = revenue + ? " +
+                        "where sales_date = ? and item_id = ? and status = ?",
+                new Object[]{orders, units, revenue, Date.valueOf(day), itemId, status.name()},
+                "insert into sales_daily_item (sales_date, item_id, status, order_count, units, revenue) values (?, ?, ?, ?, ?, ?)",
+                new Object[]{Date.valueOf(day), itemId, status.name(), orders, units, revenue});
+    }
+
+    /**
+     * 해당 row 가 없을 때만 insert (그 사이 다른 트랜잭션이 먼저 insert 했으면 다시 update)
+     */
+    private void upsert(String updateSql, Object[] updateArgs, String insertSql, Object[] insertArgs) {
+        if (jdbcTemplate.update(updateSql, updateArgs) > 0) {
+            return;
+        }
+        if (!insertIfAbsent(insertSql, insertArgs)) {
+            jdbcTemplate.update(updateSql, updateArgs);
+        }
+    }
+
+    /**
+     * savepoint 안에서 insert - 중복키로 실패하면 savepoint 까지만 되돌린다.
+     * PostgreSQL 등은 문장 하나가 실패하면 트랜잭션 전체가 abort 상태가 되어서
+     * 그냥 catch 하고 update 를 다시 날리면 그 update 도, 주문 트랜잭션도 같이 실패한다.
+     *
+     * @return 중복키라 insert 하지 못했으면 false
+     */
+    private boolean insertIfAbsent(String sql, Object[] args) {
+        return jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            Savepoint savepoint = con.getAutoCommit() ? null : con.setSavepoint();
+            try (PreparedStatement ps = con.prepareStatement(sql)) {
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                ps.executeUpdate();
+            } catch (SQLException e) {
+                if (savepoint != null) {
+                    con.rollback(savepoint);
+                }
+                if (jdbcTemplate.getExceptionTranslator().translate("insertIfAbsent", sql, e) instanceof DuplicateKeyException) {
+                    return false;
+                }
+                throw e;
+            }
+            if (savepoint != null) {
+                releaseSavepoint(con, savepoint);
+            }
+            return true;
+        });
+    }
+
+    private static void releaseSavepoint(Connection con, Savepoint savepoint) throws SQLException {
+        try {
+            con.releaseSavepoint(savepoint);
+        } catch (SQLFeatureNotSupportedException e) {
+            // 오라클 등 release 를 지원하지 않는 드라이버는 트랜잭션이 끝날 때 같이 정리된다.
+        }
+    }
+
+    /**
+     * 롤업 조회 : 일별, 상태별
+     */
+    public List<SalesDailyDto> findDaily(LocalDate from, LocalDate to, OrderStatus status) {
+        String jpql = "select new jpabook.jpashop.repository.sales.SalesDailyDto(s.salesDate, s.status, s.orderCount, s.units, s.revenue) " +
+                "from SalesDaily s " +
+                "where s.salesDate between :from and :to ";
+        if (status != null) {
+            jpql += "and s.status = :status ";
+        }
+        jpql += "order by s.salesDate, s.status";
+
+        TypedQuery<SalesDailyDto> query = em.createQuery(jpql, SalesDailyDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        return query.getResultList();
+    }
+
+    /**
+     * 롤업 조회 : 기간 내 매출 상위 상품
+     */
+    public List<SalesItemDto> findTopItems(LocalDate from, LocalDate to, OrderStatus status, int limit) {
+        return em.createQuery(
+                        "select new jpabook.jpashop.repository.sales.SalesItemDto(s.itemId, i.name, sum(s.orderCount), sum(s.units), sum(s.revenue)) " +
+                                "from SalesDailyItem s, Item i " +
+                                "where i.id = s.itemId " +
+                                "and s.salesDate between :from and :to " +
+                                "and s.status = :status " +
+                                "group by s.itemId, i.name " +
+                                "order by sum(s.revenue) desc", SalesItemDto.class)
+                .setParameter("from", from)
+                .setParameter("to", to)
+                .setParameter("status", status)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * 원본 SUM 조회 (롤업을 믿을 수 없거나 롤업 도입 전 데이터를 검증할 때)
+     * order_date 범위 조건이라 idx_orders_order_date_id 를 탄다.
+     */
+    public List<SalesDailyDto> findDailyFromSource(LocalDate from, LocalDate to, OrderStatus status) {
+        List<Object> args = new ArrayList<>();
+        String sql = DAILY_FROM_SOURCE + "where o.order_date >= ? and o.order_date < ? ";
+        args.add(Timestamp.valueOf(from.atStartOfDay()));
+        args.add(Timestamp.valueOf(to.plusDays(1).atStartOfDay()));
+        if (status != null) {
+            sql += "and o.status = ? ";
+            args.add(status.name());
+        }
+        sql += DAILY_GROUP_BY + "order by sales_date, o.status";
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new SalesDailyDto(
+                rs.getDate("sales_date").toLocalDate(),
+                OrderStatus.valueOf(rs.getString("status")),
+                rs.getLong("order_count"),
+                rs.getLong("units"),
+                rs.getLong("revenue")), args.toArray());
+    }
+
+    public List<SalesItemDto> findTopItemsFromSource(LocalDate from, LocalDate to, OrderStatus status, int limit) {
+        return jdbcTemplate.query(
+                "select oi.item_id, i.name, count(distinct o.order_id) as order_count, " +
+                        "sum(oi.count) as units, sum(oi.order_price * oi.count) as revenue " +
+                        "from orders o " +
+                        "join order_item oi on oi.order_id = o.order_id " +
+                        "join item i on i.item_id = oi.item_id " +
+                        "where o.order_date >= ? and o.order_date < ? and o.status = ? " +
+                        "group by oi.item_id, i.name " +
+                        "order by revenue desc " +
+                        "limit ?",
+                (rs, rowNum) -> new SalesItemDto(
+                        rs.getLong("item_id"),
+                        rs.getString("name"),
+                        rs.getLong("order_count"),
+                        rs.getLong("units"),
+                        rs.getLong("revenue")),
+                Timestamp.valueOf(from.atStartOfDay()), Timestamp.valueOf(to.plusDays(1).atStartOfDay()), status.name(), limit);
+    }
+
+    /**
+     * 롤업 전체 재생성 (원본에서 insert ... select)
+     */
+    public int rebuild() {
+        em.flush();
+        jdbcTemplate.update("delete from sales_daily");
+        jdbcTemplate.update("delete from sales_daily_item");
+        int rows = jdbcTemplate.update("insert into sales_daily (sales_date, status, order_count, units, revenue) " +
+                DAILY_FROM_SOURCE + DAILY_GROUP_BY);
+        rows += jdbcTemplate.update("insert into sales_daily_item (sales_date, item_id, status, order_count, units, revenue) " +
+                DAILY_ITEM_FROM_SOURCE + DAILY_ITEM_GROUP_BY);
+        return rows;
+    }
+}
@@ -0,0 +1,62 @@
+package jpabook.jpashop.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 애그리거트(테이블)별 변경 카운터 -> 목록 API 의 ETag (ETagInterceptor 참고)
+ *
+ * 변경하는 서비스 메서드에서 bump 하면 커밋된 뒤에 카운터가 올라간다.
+ * - 커밋 전에 올리면 아직 이전 데이터를 읽은 응답이 새 버전의 ETag 를 달고 나가서 클라이언트가 계속 옛날 데이터를 쓸 수 있다.
+ * - 롤백되면 올리지 않는다.
+ * ETag 는 본 쿼리보다 먼저 읽으므로 그 사이에 커밋된 변경은 다음 요청에서 새 ETag 로 내려간다.
+ * 같은 이유로 커밋이 아직 복제되지 않았을 수 있는 레플리카 응답에는 ETag 를 달지 않는다. (ETagResponseAdvice)
+ *
+ * 카운터는 서버 메모리에만 있으므로 서버마다 값이 다르다. (ETag 에 기동 시각을 넣어서 서버/재기동 간 충돌은 피함)
+ * 다른 서버에서 일어난 변경이나 DB 를 직접 고친 경우는 모르므로
+ * 여러 대로 운영할 때는 이 카운터를 DB 나 공유 저장소로 옮겨야 한다.
+ */
+@Component
+public class AggregateVersions {
+
+    public enum Aggregate {
+        MEMBER, ORDER, ITEM
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray versions = new AtomicLongArray(Aggregate.values().length);
+
+    /**
+     * 변경 표시 - 트랜잭션 안이면 커밋 후에, 밖이면 바로 반영
+     */
+    public void bump(Aggregate aggregate) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            versions.incrementAndGet(aggregate.ordinal());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                versions.incrementAndGet(aggregate.ordinal());
+            }
+        });
+    }
+
+    public long version(Aggregate aggregate) {
+        return versions.get(aggregate.ordinal());
+    }
+
+    /**
+     * 응답 데이터가 의존하는 애그리거트들의 버전을 합친 ETag 값 (따옴표 제외)
+     */
+    public String etag(Aggregate... aggregates) {
+        StringBuilder sb = new StringBuilder(epoch);
+        for (Aggregate aggregate : aggregates) {
+            sb.append('-').append(aggregate.name().charAt(0)).append(version(aggregate));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,37 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.Valid;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 주문의 주문 1건 (주문상품 여러개)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkOrderDto {
+    @NotNull
+    private Long memberId;
+
+    @NotEmpty
+    @Valid
+    private List<Line> lines = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        @NotNull
+        private Long itemId;
+        @Min(1)
+        private int count;
+    }
+}
@@ -2,22 +2,32 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemPriceStock;
 import jpabook.jpashop.repository.ItemRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemService {
+    private static final int BULK_CHUNK_SIZE = 1_000;
+
     private final ItemRepository iRepo;
+    private final AggregateVersions versions;
 
     @Transactional
     public void saveItem(Item i) {
         iRepo.save(i);
+        versions.bump(Aggregate.ITEM);
     }
 
     /*
@@ -39,6 +49,41 @@ public class ItemService {
         // 아래 처럼 명확하게 엔티티의 상태를 변경하는 메서드로 정의하는게 좋다.
         // entity의 setter 는 private으로 두고 이런 의도가 내포된 비즈니스 메서드로만 상태를 변경해주는 것도 방법
         findBook.changeCommonValues(param);
+        versions.bump(Aggregate.ITEM);
+    }
+
+    /**
+     * 가격/재고 일괄 변경 (야간 가격 재조정)
+     *
+     * updateBook 을 반복하면 상품마다 select + 더티체킹 + update 라서 카탈로그 전체가 영속성 컨텍스트에 올라온다.
+     * 여기서는 조회 없이 update 문을 BULK_CHUNK_SIZE 개씩 jdbc batch 로 보내고 바뀐 상품만 캐시에서 제거한다.
+     * - 같은 id 가 여러번 오면 마지막 값
+     * - id 순서로 update 해서 재고 차감(findAllByIdsForUpdate)과 row 락 순서를 맞춤 (데드락 방지)
+     * - 낙관적 락 version 도 올리므로 그 사이에 읽어둔 엔티티로 수정하면 충돌로 감지된다.
+     *
+     * @return 없는 상품 id (나머지는 모두 반영됨)
+     */
+    @Transactional
+    public List<Long> updatePriceAndStock(List<ItemPriceStock> rows) {
+        Map<Long, ItemPriceStock> byId = new LinkedHashMap<>();
+        rows.forEach(r -> byId.put(r.getId(), r));
+        List<ItemPriceStock> sorted = new ArrayList<>(byId.values());
+        sorted.sort(Comparator.comparing(ItemPriceStock::getId));
+
+        List<Long> missing = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += BULK_CHUNK_SIZE) {
+            List<ItemPriceStock> chunk = sorted.subList(from, Math.min(from + BULK_CHUNK_SIZE, sorted.size()));
+            int[] updated = iRepo.updatePriceAndStock(chunk);
+            for (int i = 0; i < updated.length; i++) {
+                // SUCCESS_NO_INFO(-2) 는 드라이버가 건수를 안 알려준 것 -> 반영된 것으로 봄
+                if (updated[i] == 0) {
+                    missing.add(chunk.get(i).getId());
+                }
+            }
+        }
+        iRepo.evict(byId.keySet());
+        versions.bump(Aggregate.ITEM);
+        return missing;
     }
 
     public List<Item> findItems() {
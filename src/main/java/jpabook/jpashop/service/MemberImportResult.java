@@ -0,0 +1,45 @@
+package jpabook.jpashop.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 대량 가입 결과 - 실패한 줄은 errors 에 담고 나머지는 계속 처리한다.
+ * errors 는 앞에서부터 최대 jpashop.member.import.max-errors 건 (failed 는 전체 실패 수)
+ */
+@Data
+@NoArgsConstructor
+public class MemberImportResult {
+    private long total;
+    private long imported;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+
+    void read() {
+        total++;
+    }
+
+    void imported(int count) {
+        imported += count;
+    }
+
+    void fail(long line, String name, String reason, int maxErrors) {
+        failed++;
+        if (errors.size() < maxErrors) {
+            errors.add(new RowError(line, name, reason));
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String name;
+        private String reason;
+    }
+}
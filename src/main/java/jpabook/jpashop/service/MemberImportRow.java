@@ -0,0 +1,20 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 대량 가입 한 줄 (csv : name,city,street,zipcode / ndjson : {"name":..,"city":..,"street":..,"zipcode":..})
+ */
+@Data
+@NoArgsConstructor
+public class MemberImportRow {
+    /** 요청 본문의 줄 번호 (1부터) */
+    @JsonIgnore
+    private long line;
+    private String name;
+    private String city;
+    private String street;
+    private String zipcode;
+}
@@ -0,0 +1,285 @@
+package jpabook.jpashop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 대량 회원 가입 (파트너사 회원 이관 등)
+ *
+ * join() 을 한 건씩 부르면 회원마다 중복 검사 select + insert + 커밋이 나간다.
+ * 여기서는 요청 본문을 한 줄씩 읽으면서 chunkSize 건씩 모아서
+ * - 중복 검사 : bloom filter 가 "있을 수도 있음" 이라고 한 이름만 in 쿼리 한 번으로 확인
+ * - insert : persist 후 flush 로 hibernate.jdbc.batch_size 단위 jdbc batch, 청크마다 영속성 컨텍스트 비움
+ * - 트랜잭션 : 청크마다 커밋 (실패해도 앞 청크는 유지, 본문 전체를 메모리에 올리지 않음)
+ *
+ * 본문은 요청의 charset 으로 읽고 (없으면 UTF-8) 두 형식 모두 값의 앞뒤 공백은 떼고 빈 값은 없는 것으로 본다.
+ * 잘못된 줄은 결과의 errors 에 남기고 계속 진행한다.
+ * 검사와 insert 사이에 다른 요청이 같은 이름으로 가입하면 청크 insert 가 uk_member_name 에 걸리는데
+ * 그때는 그 청크만 한 건씩 다시 넣어서 실패한 줄을 찾는다.
+ */
+@Service
+public class MemberImportService {
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_COLUMNS = 4;
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    private final MemberRepository mRepo;
+    private final MemberNameFilter nameFilter;
+    private final AggregateVersions versions;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate tx;
+    private final int chunkSize;
+    private final int maxErrors;
+
+    public MemberImportService(MemberRepository mRepo,
+                               MemberNameFilter nameFilter,
+                               AggregateVersions versions,
+                               ObjectMapper objectMapper,
+                               PlatformTransactionManager txManager,
+                               @Value("${jpashop.member.import.chunk-size:1000}") int chunkSize,
+                               @Value("${jpashop.member.import.max-errors:1000}") int maxErrors) {
+        this.mRepo = mRepo;
+        this.nameFilter = nameFilter;
+        this.versions = versions;
+        this.objectMapper = objectMapper;
+        this.tx = new TransactionTemplate(txManager);
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+    }
+
+    public MemberImportResult importMembers(InputStream body, Format format, Charset charset) throws IOException {
+        MemberImportResult result = new MemberImportResult();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, charset));
+        List<MemberImportRow> chunk = new ArrayList<>(chunkSize);
+
+        long lineNo = 0;
+        boolean first = true;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (first) {
+                first = false;
+                if (format == Format.CSV && isCsvHeader(line)) {
+                    continue;
+                }
+            }
+
+            result.read();
+            MemberImportRow row;
+            try {
+                row = format == Format.CSV ? parseCsv(line) : objectMapper.readValue(line, MemberImportRow.class);
+            } catch (JsonProcessingException e) {
+                result.fail(lineNo, null, "형식 오류 : " + e.getOriginalMessage(), maxErrors);
+                continue;
+            } catch (IllegalArgumentException e) {
+                result.fail(lineNo, null, "형식 오류 : " + e.getMessage(), maxErrors);
+                continue;
+            }
+            if (row == null) {
+                // NDJSON 의 null 리터럴 줄 - 객체가 아니면 ("[1]", "\"x\"") 위에서 형식 오류로 걸러진다.
+                result.fail(lineNo, null, "형식 오류 : 객체가 아님", maxErrors);
+                continue;
+            }
+            normalize(row);
+            row.setLine(lineNo);
+            chunk.add(row);
+
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, result);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, result);
+        }
+        return result;
+    }
+
+    private void importChunk(List<MemberImportRow> rows, MemberImportResult result) {
+        List<MemberImportRow> valid = validate(rows, result);
+        if (valid.isEmpty()) {
+            return;
+        }
+        try {
+            apply(tx.execute(s -> insertNew(valid)), result);
+        } catch (DataIntegrityViolationException e) {
+            // 동시에 같은 이름이 가입됨 - 이 청크만 한 건씩 다시 (롤백되면서 영속성 컨텍스트도 비워짐)
+            for (MemberImportRow row : valid) {
+                try {
+                    apply(tx.execute(s -> insertNew(Collections.singletonList(row))), result);
+                } catch (DataIntegrityViolationException rowFailure) {
+                    result.fail(row.getLine(), row.getName(), "이미 가입된 이름", maxErrors);
+                }
+            }
+        }
+    }
+
+    /** 이름 누락, 길이 초과, 같은 청크 안의 중복 이름 */
+    private List<MemberImportRow> validate(List<MemberImportRow> rows, MemberImportResult result) {
+        List<MemberImportRow> valid = new ArrayList<>(rows.size());
+        Set<String> names = new HashSet<>();
+        for (MemberImportRow row : rows) {
+            String name = row.getName();
+            if (!StringUtils.hasText(name)) {
+                result.fail(row.getLine(), name, "이름 누락", maxErrors);
+            } else if (name.length() > MAX_NAME_LENGTH) {
+                result.fail(row.getLine(), name, "이름이 너무 김", maxErrors);
+            } else if (!names.add(name)) {
+                result.fail(row.getLine(), name, "요청 내 중복 이름", maxErrors);
+            } else {
+                valid.add(row);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * 트랜잭션 안에서 실행 - 이미 있는 이름은 빼고 insert
+     */
+    private ChunkOutcome insertNew(List<MemberImportRow> rows) {
+        List<String> candidates = rows.stream()
+                .map(MemberImportRow::getName)
+                .filter(nameFilter::mightContain)
+                .collect(Collectors.toList());
+        Set<String> existing = candidates.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(mRepo.findExistingNames(candidates));
+
+        ChunkOutcome outcome = new ChunkOutcome();
+        for (MemberImportRow row : rows) {
+            if (existing.contains(row.getName())) {
+                outcome.duplicates.add(row);
+                continue;
+            }
+            Member member = new Member();
+            member.setName(row.getName());
+            if (row.getCity() != null || row.getStreet() != null || row.getZipcode() != null) {
+                member.setAddress(new Address(row.getCity(), row.getStreet(), row.getZipcode()));
+            }
+            mRepo.save(member);
+            outcome.inserted.add(row);
+        }
+        mRepo.flushAndClear();
+        if (!outcome.inserted.isEmpty()) {
+            versions.bump(Aggregate.MEMBER);
+        }
+        return outcome;
+    }
+
+    /** 커밋된 뒤에 결과 반영 (롤백되어 다시 시도하는 경우 중복 집계하지 않도록) */
+    private void apply(ChunkOutcome outcome, MemberImportResult result) {
+        for (MemberImportRow row : outcome.duplicates) {
+            result.fail(row.getLine(), row.getName(), "이미 가입된 이름", maxErrors);
+        }
+        for (MemberImportRow row : outcome.inserted) {
+            nameFilter.put(row.getName());
+        }
+        result.imported(outcome.inserted.size());
+    }
+
+    private static boolean isCsvHeader(String line) {
+        return "name".equalsIgnoreCase(parseCsvFields(line).get(0).trim());
+    }
+
+    private static MemberImportRow parseCsv(String line) {
+        List<String> fields = parseCsvFields(line);
+        if (fields.size() > MAX_COLUMNS) {
+            throw new IllegalArgumentException("컬럼 수 초과 (name,city,street,zipcode)");
+        }
+        MemberImportRow row = new MemberImportRow();
+        row.setName(field(fields, 0));
+        row.setCity(field(fields, 1));
+        row.setStreet(field(fields, 2));
+        row.setZipcode(field(fields, 3));
+        return row;
+    }
+
+    private static String field(List<String> fields, int index) {
+        return index < fields.size() ? fields.get(index) : null;
+    }
+
+    /** CSV, NDJSON 공통 - 앞뒤 공백 제거, 빈 값은 null */
+    private static void normalize(MemberImportRow row) {
+        row.setName(trimToNull(row.getName()));
+        row.setCity(trimToNull(row.getCity()));
+        row.setStreet(trimToNull(row.getStreet()));
+        row.setZipcode(trimToNull(row.getZipcode()));
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    /**
+     * RFC 4180 의 한 줄 - 쌍따옴표로 감싼 필드 안의 쉼표와 "" (따옴표) 처리. 필드 안의 줄바꿈은 지원하지 않음
+     */
+    static List<String> parseCsvFields(String line) {
+        List<String> fields = new ArrayList<>(MAX_COLUMNS);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("닫히지 않은 따옴표");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class ChunkOutcome {
+        private final List<MemberImportRow> inserted = new ArrayList<>();
+        private final List<MemberImportRow> duplicates = new ArrayList<>();
+    }
+}
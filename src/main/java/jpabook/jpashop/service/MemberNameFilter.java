@@ -0,0 +1,99 @@
+package jpabook.jpashop.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 이미 사용중인 회원 이름의 bloom filter
+ *
+ * 회원가입 때마다 중복 검사 select 를 날리는 대신
+ * "확실히 없는 이름" 이면 DB 조회를 생략하기 위한 용도 (false negative 는 없고 false positive 만 있음)
+ * - mightContain == false : 확실히 처음 보는 이름 -> 조회 생략
+ * - mightContain == true : 있을 수도 있음 -> DB 조회로 확인
+ *
+ * 다른 서버에서 가입했거나 DB에 직접 넣은 이름은 모를 수 있으므로 최종 판단은 member.name 의 unique 제약조건이 한다.
+ * warmUp 전에는 모든 이름에 대해 true 를 반환한다. (= 기존처럼 항상 DB 조회)
+ */
+@Component
+public class MemberNameFilter {
+    private final AtomicLongArray bits;
+    private final int bitSize;
+    private final int hashCount;
+    private volatile boolean ready;
+
+    public MemberNameFilter(@Value("${jpashop.member.name-filter.expected-insertions:1000000}") int expectedInsertions,
+                            @Value("${jpashop.member.name-filter.fpp:0.01}") double fpp) {
+        // 최적 비트 수 m = -n * ln(p) / (ln2)^2, 해시 함수 수 k = m / n * ln2
+        long m = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        this.bitSize = (int) Math.min(Integer.MAX_VALUE - 63, Math.max(64, m));
+        this.hashCount = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        this.bits = new AtomicLongArray((bitSize + 63) / 64);
+    }
+
+    public boolean mightContain(String name) {
+        if (!ready || name == null) {
+            return true;
+        }
+        long hash = hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            if ((bits.get(bit >>> 6) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public void put(String name) {
+        if (name == null) {
+            return;
+        }
+        long hash = hash64(name);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            int bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = bit >>> 6;
+            long prev;
+            do {
+                prev = bits.get(word);
+            } while ((prev & mask) == 0 && !bits.compareAndSet(word, prev, prev | mask));
+        }
+    }
+
+    /**
+     * 기존 이름을 모두 넣은 뒤 호출해야 조회 생략이 시작된다.
+     */
+    public void markReady() {
+        this.ready = true;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    private int index(int combinedHash) {
+        return (combinedHash & Integer.MAX_VALUE) % bitSize;
+    }
+
+    /** FNV-1a 64bit + murmur3 fmix64 (상위/하위 32bit 를 독립적인 해시 2개로 쓰기 위해 비트를 섞어줌) */
+    private static long hash64(String name) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : name.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
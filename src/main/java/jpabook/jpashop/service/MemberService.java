@@ -2,11 +2,17 @@ package jpabook.jpashop.service;
 
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -21,6 +27,9 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class MemberService {
     private final MemberRepository mRepo;
+    private final MemberNameFilter nameFilter;
+    private final OrderSummaryRepository summaryRepo;
+    private final AggregateVersions versions;
 
     /**
     * 회원 가입
@@ -31,7 +40,15 @@ public class MemberService {
     @Transactional
     public Long join(Member m) {
         validateDuplicateMember(m);
-        mRepo.save(m);
+        try {
+            mRepo.save(m);
+            // unique 제약조건 위반을 커밋 시점이 아니라 여기서 확인하기 위해 바로 insert
+            mRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("회원 중복 발생", e);
+        }
+        nameFilter.put(m.getName());
+        versions.bump(Aggregate.MEMBER);
         return m.getId();
     }
 
@@ -39,13 +56,30 @@ public class MemberService {
     private void validateDuplicateMember(Member m) {
         /*
         멀티쓰레드, 2개 이상의 was등의 환경을 고려하면 같은 이름의 체크가 동시에 이 지점에 도달할 경우 실제로는 중복 이름으로 가입이 발생할 수 있다.
-        따라서 DB 레벨로 unique 제약조건을 부여하여 최종방어를 할 필요가 있다.
+        따라서 DB 레벨로 unique 제약조건을 부여하여 최종방어를 할 필요가 있다. -> uk_member_name
+
+        그래서 여기서의 검사는 정상적인 중복 가입을 빨리 거르기 위한 용도
+        bloom filter 가 처음 보는 이름이라고 하면 DB 조회 없이 바로 insert 로 넘어간다.
+        (대부분의 가입은 새로운 이름이므로 select + insert 가 insert 1번으로 줄어든다)
          */
-        if(mRepo.findByName(m.getName()).size() > 0) {
+        if (nameFilter.mightContain(m.getName()) && mRepo.existsByName(m.getName())) {
             throw new IllegalStateException("회원 중복 발생");
         }
     }
 
+    /**
+     * 기동 후 기존 회원 이름으로 bloom filter 를 채운다.
+     * 채우는 동안에는 filter 가 항상 "있을 수 있음" 을 반환하므로 기존처럼 DB 조회로 검사한다.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUpNameFilter() {
+        try (Stream<String> names = mRepo.streamAllNames()) {
+            names.forEach(nameFilter::put);
+        }
+        nameFilter.markReady();
+    }
+
     /**
      * 회원 전체 조회
      * */
@@ -71,6 +105,16 @@ public class MemberService {
     @Transactional
     public void update(Long id, String name) {
         Member member = mRepo.findOne(id);
-        member.setName(name);
+        try {
+            member.setName(name);
+            // 가입과 마찬가지로 unique 제약조건 위반을 커밋 시점이 아니라 여기서 확인
+            mRepo.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalStateException("회원 중복 발생", e);
+        }
+        nameFilter.put(name);
+        // 주문 요약(읽기 모델)의 회원명도 함께 변경
+        summaryRepo.updateMemberName(id, name);
+        versions.bump(Aggregate.MEMBER);
     }
 }
@@ -4,24 +4,37 @@ import jpabook.jpashop.domain.Delivery;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Item;
-import jpabook.jpashop.repository.ItemRepository;
 import jpabook.jpashop.repository.MemberRepository;
 import jpabook.jpashop.repository.OrderRepository;
 import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class OrderService {
+    private static final int BULK_CHUNK_SIZE = 500;
+
     private final OrderRepository oRepo;
     private final MemberRepository mRepo;
-    private final ItemRepository iRepo;
+    private final StockManager stockManager;
+    private final OrderSummaryRepository summaryRepo;
+    private final SalesRollupService salesRollupService;
+    private final AggregateVersions versions;
 
     /**
      * 주문
@@ -32,14 +45,16 @@ public class OrderService {
         // 트랜잭션 내에서 모두 조회하므로 영속성 컨텍스트 내에서 작업할 수 있다.
         // 엔티티 조회
         Member member = mRepo.findOne(memberId);
-        Item item = iRepo.findOne(itemId);
+        // 재고 차감 - 동시 주문에도 재고보다 많이 팔리지 않도록 StockManager 의 전략으로 차감한다.
+        Item item = stockManager.removeStock(itemId, count);
 
         // 배송정보 생성 - 현실에서는 배송지 입력 시나리오가 있을 것이다.
         Delivery delivery = new Delivery();
         delivery.setAddress(member.getAddress());
 
         // 주문상품 생성 - 현실에서는 다양한 할인정책 등이 적용될 수 있을 것이다.
-        OrderItem orderItem = OrderItem.createOrderItem(item, item.getPrice(), count);
+        // 재고는 위에서 이미 차감했으므로 createReservedOrderItem 사용
+        OrderItem orderItem = OrderItem.createReservedOrderItem(item, item.getPrice(), count);
         // 정적 팩토리 메서드만 쓰도록 강제했으므로 이 방법으로 객체를 생성할 수 없다! = 객체 생성 문제가 생기면 한 곳만 보면 된다!
 //        OrderItem oi1 = new OrderItem();
 
@@ -49,9 +64,81 @@ public class OrderService {
         // 주문 저장
         // cascade = CascadeType.ALL 로 세팅해뒀기 때문에 orderItem, delivery 도 함께 persist 된다.
         oRepo.save(order);
+        // 목록 조회용 읽기 모델도 같은 트랜잭션에서 저장
+        summaryRepo.save(OrderSummary.from(order));
+        // 매출 롤업 증분 갱신
+        salesRollupService.ordered(Collections.singletonList(order));
+        versions.bump(Aggregate.ORDER);
         return order.getId();
     }
 
+    /**
+     * 대량 주문 (주문 여러건, 주문마다 주문상품 여러개)
+     *
+     * order() 를 반복 호출하면 주문마다 회원/상품 select 와 재고 update, insert 들이 각각 나간다.
+     * - 상품 : 수량을 합산해서 in 쿼리 한 번으로 락 + 차감 (StockManager.removeStocks)
+     * - 회원 : 청크마다 in 쿼리 한 번
+     * - insert : 청크마다 flush 해서 hibernate.jdbc.batch_size 단위로 묶어서 전송 (order_inserts 로 테이블별 정렬)
+     *
+     * 전체가 하나의 트랜잭션이므로 재고가 부족한 상품이 하나라도 있으면 모두 롤백된다.
+     *
+     * @return 생성된 주문 id (요청 순서대로)
+     */
+    @Transactional
+    public List<Long> orderBulk(List<BulkOrderDto> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Long, Integer> quantities = new HashMap<>();
+        for (BulkOrderDto o : orders) {
+            for (BulkOrderDto.Line line : o.getLines()) {
+                quantities.merge(line.getItemId(), line.getCount(), Integer::sum);
+            }
+        }
+        // 청크마다 clear 해서 이후로는 준영속 상태가 되지만 OrderItem 이 id 로 참조만 하므로 문제없다.
+        Map<Long, Item> items = stockManager.removeStocks(quantities);
+
+        List<Long> orderIds = new ArrayList<>(orders.size());
+        for (int from = 0; from < orders.size(); from += BULK_CHUNK_SIZE) {
+            List<BulkOrderDto> chunk = orders.subList(from, Math.min(from + BULK_CHUNK_SIZE, orders.size()));
+
+            // 회원은 Order.setMember 에서 orders 컬렉션을 건드리므로 청크마다 영속 상태로 다시 조회
+            Set<Long> memberIds = chunk.stream().map(BulkOrderDto::getMemberId).collect(Collectors.toSet());
+            Map<Long, Member> members = mRepo.findAllByIds(memberIds).stream()
+                    .collect(Collectors.toMap(Member::getId, m -> m));
+            List<Order> created = new ArrayList<>(chunk.size());
+
+            for (BulkOrderDto o : chunk) {
+                Member member = members.get(o.getMemberId());
+                if (member == null) {
+                    throw new IllegalArgumentException("존재하지 않는 회원입니다. memberId=" + o.getMemberId());
+                }
+
+                Delivery delivery = new Delivery();
+                delivery.setAddress(member.getAddress());
+
+                OrderItem[] orderItems = o.getLines().stream()
+                        .map(line -> {
+                            Item item = items.get(line.getItemId());
+                            return OrderItem.createReservedOrderItem(item, item.getPrice(), line.getCount());
+                        })
+                        .toArray(OrderItem[]::new);
+
+                Order order = Order.createOrder(member, delivery, orderItems);
+                oRepo.save(order);
+                summaryRepo.save(OrderSummary.from(order));
+                created.add(order);
+                orderIds.add(order.getId());
+            }
+            // 청크 단위로 합산해서 롤업 row 당 update 1번
+            salesRollupService.ordered(created);
+            oRepo.flushAndClear();
+        }
+        versions.bump(Aggregate.ORDER);
+        return orderIds;
+    }
+
     /** 취소 */
     @Transactional
     public void cancelOrder(Long orderId) {
@@ -60,6 +147,20 @@ public class OrderService {
 
         // 주문 취소
         order.cancel();
+        for (OrderItem orderItem : order.getOrderItems()) {
+            stockManager.addStock(orderItem.getItem(), orderItem.getCount());
+        }
+        // 매출 롤업 : ORDER -> CANCEL 로 옮긴다. (재취소는 order.cancel() 에서 막힘)
+        salesRollupService.canceled(order);
+        versions.bump(Aggregate.ORDER);
+
+        // 읽기 모델 갱신 (재생성 전에 만들어진 주문이라 없으면 새로 만든다)
+        OrderSummary summary = summaryRepo.findOne(orderId);
+        if (summary == null) {
+            summaryRepo.save(OrderSummary.from(order));
+        } else {
+            summary.changeStatus(order.getStatus());
+        }
 
         /*
         JPA를 사용했기 때문에 order.cancel() 까지만 해주면
@@ -72,9 +173,27 @@ public class OrderService {
     }
 
     /**
-     * 검색
+     * order_summary 전체 재생성
+     * @return 생성된 주문 요약 수
+     */
+    @Transactional
+    public int rebuildOrderSummaries() {
+        // v5 목록(order_summary)의 내용이 바뀌므로 ETag 도 갱신
+        versions.bump(Aggregate.ORDER);
+        return summaryRepo.rebuild();
+    }
+
+    /**
+     * 검색 - 주문 목록 화면 (회원명 부분 일치, 최대 1000건)
      */
     public List<Order> findOrders(OrderSearch orderSearch) {
         return oRepo.findAllByCriteria(orderSearch);
     }
+
+    /**
+     * 검색 API - 회원명 앞부분 일치, 상태/기간/상품 조건, offset/limit 페이징 (OrderRepository.findAll)
+     */
+    public List<Order> searchOrders(OrderSearch orderSearch) {
+        return oRepo.findAll(orderSearch);
+    }
 }
@@ -0,0 +1,140 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * 매출 롤업 (sales_daily, sales_daily_item) 증분 갱신
+ *
+ * 주문/취소 트랜잭션 안에서 같이 호출되므로 주문이 롤백되면 롤업도 같이 롤백된다.
+ * 대신 같은 날짜/상태 row 를 모든 주문이 갱신하므로 그 row 가 핫스팟이 된다.
+ * - 같은 트랜잭션 내 주문들은 메모리에서 먼저 합산해서 row 당 update 1번
+ * - 키 순서(TreeMap)대로 갱신해서 트랜잭션끼리 서로 반대 순서로 락을 잡는 데드락을 피한다.
+ * 롤업이 의심스러우면 SUM 조회(live)로 비교하거나 rebuild 로 원본에서 다시 만든다.
+ */
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class SalesRollupService {
+    private final SalesRollupRepository salesRepo;
+    private final AggregateVersions versions;
+
+    /** 주문 생성분 반영 (호출하는 쪽 트랜잭션에 참여) */
+    @Transactional
+    public void ordered(Collection<Order> orders) {
+        Deltas deltas = new Deltas();
+        for (Order order : orders) {
+            deltas.add(order, OrderStatus.ORDER, 1);
+        }
+        deltas.apply(salesRepo);
+    }
+
+    /** 취소분 반영 : 주문일의 ORDER 에서 빼고 CANCEL 로 옮긴다. */
+    @Transactional
+    public void canceled(Order order) {
+        Deltas deltas = new Deltas();
+        deltas.add(order, OrderStatus.ORDER, -1);
+        deltas.add(order, OrderStatus.CANCEL, 1);
+        deltas.apply(salesRepo);
+    }
+
+    /**
+     * 롤업 전체 재생성
+     * @return 생성된 row 수 (sales_daily + sales_daily_item)
+     */
+    @Transactional
+    public int rebuild() {
+        // 롤업 조회 결과가 바뀔 수 있으므로 주문 ETag 도 갱신
+        versions.bump(Aggregate.ORDER);
+        return salesRepo.rebuild();
+    }
+
+    /**
+     * 갱신할 값을 키별로 모아둔다. (long[] = {order_count, units, revenue})
+     */
+    private static class Deltas {
+        private final Map<DailyKey, long[]> daily = new TreeMap<>();
+        private final Map<DailyItemKey, long[]> dailyItem = new TreeMap<>();
+
+        void add(Order order, OrderStatus status, int sign) {
+            LocalDate day = order.getOrderDate().toLocalDate();
+            long units = 0;
+            long revenue = 0;
+            // 상품별 order_count 는 주문 하나에 같은 상품이 여러 줄 있어도 1
+            Set<Long> countedItems = new HashSet<>();
+            for (OrderItem orderItem : order.getOrderItems()) {
+                Long itemId = orderItem.getItem().getId();
+                long lineRevenue = (long) orderItem.getOrderPrice() * orderItem.getCount();
+                units += orderItem.getCount();
+                revenue += lineRevenue;
+
+                long[] itemSum = dailyItem.computeIfAbsent(new DailyItemKey(day, itemId, status), k -> new long[3]);
+                if (countedItems.add(itemId)) {
+                    itemSum[0] += sign;
+                }
+                itemSum[1] += (long) sign * orderItem.getCount();
+                itemSum[2] += sign * lineRevenue;
+            }
+
+            long[] sum = daily.computeIfAbsent(new DailyKey(day, status), k -> new long[3]);
+            sum[0] += sign;
+            sum[1] += sign * units;
+            sum[2] += sign * revenue;
+        }
+
+        void apply(SalesRollupRepository salesRepo) {
+            daily.forEach((k, v) -> salesRepo.addDaily(k.day, k.status, v[0], v[1], v[2]));
+            dailyItem.forEach((k, v) -> salesRepo.addDailyItem(k.day, k.itemId, k.status, v[0], v[1], v[2]));
+        }
+    }
+
+    private static class DailyKey implements Comparable<DailyKey> {
+        private final LocalDate day;
+        private final OrderStatus status;
+
+        DailyKey(LocalDate day, OrderStatus status) {
+            this.day = day;
+            this.status = status;
+        }
+
+        @Override
+        public int compareTo(DailyKey o) {
+            int c = day.compareTo(o.day);
+            return c != 0 ? c : status.compareTo(o.status);
+        }
+    }
+
+    private static class DailyItemKey implements Comparable<DailyItemKey> {
+        private final LocalDate day;
+        private final Long itemId;
+        private final OrderStatus status;
+
+        DailyItemKey(LocalDate day, Long itemId, OrderStatus status) {
+            this.day = day;
+            this.itemId = itemId;
+            this.status = status;
+        }
+
+        @Override
+        public int compareTo(DailyItemKey o) {
+            int c = day.compareTo(o.day);
+            if (c == 0) {
+                c = itemId.compareTo(o.itemId);
+            }
+            return c != 0 ? c : status.compareTo(o.status);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.exception.StockUpdateConflictException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 동시 주문에도 안전한 재고 차감
+ *
+ * 기존 방식(엔티티를 읽고 item.removeStock 후 변경감지)은 읽기-수정-쓰기 사이에 다른 트랜잭션이 끼어들 수 있어
+ * 인기 상품에 주문이 몰리면 lost update 가 발생하고 재고보다 많이 팔리게 된다.
+ *
+ * 전략별 특징 (StockDecrementBenchmark 로 비교)
+ * - ATOMIC : DB 한 문장으로 끝나므로 락 점유시간이 가장 짧다. 기본값
+ * - PESSIMISTIC : 트랜잭션이 끝날 때까지 row 락을 잡으므로 인기 상품에서는 줄을 서게 된다.
+ * - OPTIMISTIC : 충돌이 적을 때는 가볍지만 몰리면 재시도가 늘어나고 maxRetry 를 넘기면 실패한다.
+ *
+ * 모든 전략은 호출한 트랜잭션 안에서 동작하므로 주문 저장과 함께 커밋/롤백된다.
+ */
+@Component
+public class StockManager {
+    private final ItemRepository iRepo;
+    private final StockStrategy strategy;
+    private final int optimisticMaxRetry;
+
+    public StockManager(ItemRepository iRepo,
+                        @Value("${jpashop.stock.strategy:ATOMIC}") StockStrategy strategy,
+                        @Value("${jpashop.stock.optimistic-max-retry:10}") int optimisticMaxRetry) {
+        this.iRepo = iRepo;
+        this.strategy = strategy;
+        this.optimisticMaxRetry = optimisticMaxRetry;
+    }
+
+    /**
+     * 재고 차감
+     *
+     * @return 차감이 반영된 최신 상태의 영속 엔티티
+     * @throws NotEnoughStockException 재고 부족
+     * @throws StockUpdateConflictException OPTIMISTIC 에서 재시도 횟수 초과
+     */
+    public Item removeStock(Long itemId, int quantity) {
+        Item item = iRepo.findOne(itemId);
+
+        switch (strategy) {
+            case OPTIMISTIC:
+                removeOptimistic(item, quantity);
+                break;
+            case PESSIMISTIC:
+                iRepo.refreshForUpdate(item);
+                item.removeStock(quantity);
+                break;
+            case ATOMIC:
+            default:
+                if (iRepo.decreaseStockIfEnough(itemId, quantity) == 0) {
+                    throw new NotEnoughStockException("need more stock");
+                }
+                iRepo.refresh(item);
+        }
+        return item;
+    }
+
+    /**
+     * 재고 원복 (주문 취소)
+     *
+     * 엔티티에서 addStock 하고 변경감지로 쓰면 읽은 뒤 커밋 전에 다른 주문이 version 을 올렸을 때
+     * 취소가 낙관적 락 충돌(OptimisticLockException)로 실패한다. (인기 상품일수록 자주)
+     * 늘리는 쪽은 재고 부족이 없으므로 전략과 상관없이 DB 한 문장으로 더하고 엔티티는 최신값으로 다시 읽는다.
+     */
+    public void addStock(Item item, int quantity) {
+        iRepo.increaseStock(item.getId(), quantity);
+        iRepo.refresh(item);
+    }
+
+    /**
+     * 여러 상품의 재고를 한 번에 차감 (대량 주문용)
+     *
+     * 상품마다 update 를 따로 날리는 대신 in 쿼리 한 번으로 row 락을 잡고 메모리에서 차감한다.
+     * 실제 update 는 flush 시점에 jdbc batch 로 나간다.
+     * 같은 상품이 여러 주문에 나와도 합산해서 한 번만 차감하므로 전략 설정과 상관없이 row 락 방식을 쓴다.
+     *
+     * @param quantities 상품 id -> 차감할 수량 합계
+     * @return 상품 id -> 차감이 반영된 영속 엔티티
+     */
+    public Map<Long, Item> removeStocks(Map<Long, Integer> quantities) {
+        List<Item> items = iRepo.findAllByIdsForUpdate(quantities.keySet());
+        if (items.size() != quantities.size()) {
+            throw new IllegalArgumentException("존재하지 않는 상품이 포함되어 있습니다.");
+        }
+
+        Map<Long, Item> result = new HashMap<>();
+        for (Item item : items) {
+            item.removeStock(quantities.get(item.getId()));
+            result.put(item.getId(), item);
+        }
+        return result;
+    }
+
+    public StockStrategy getStrategy() {
+        return strategy;
+    }
+
+    private void removeOptimistic(Item item, int quantity) {
+        for (int attempt = 0; attempt <= optimisticMaxRetry; attempt++) {
+            // 영속성 컨텍스트에 예전 값이 남아있을 수 있으므로 매번 최신값을 읽는다.
+            iRepo.refresh(item);
+
+            int restStock = item.getStockQuantity() - quantity;
+            if (restStock < 0) {
+                throw new NotEnoughStockException("need more stock");
+            }
+            if (iRepo.updateStockIfVersion(item.getId(), item.getVersion(), restStock) == 1) {
+                iRepo.refresh(item);
+                return;
+            }
+        }
+        throw new StockUpdateConflictException("재고 변경 충돌 - 재시도 횟수 초과. itemId=" + item.getId());
+    }
+}
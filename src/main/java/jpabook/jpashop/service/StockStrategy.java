@@ -0,0 +1,13 @@
+package jpabook.jpashop.service;
+
+/**
+ * 재고 차감 전략 (jpashop.stock.strategy)
+ */
+public enum StockStrategy {
+    /** version 비교 후 갱신 (compare-and-set), 충돌하면 최신값으로 다시 시도 */
+    OPTIMISTIC,
+    /** select ... for update 로 row 락을 잡고 갱신 */
+    PESSIMISTIC,
+    /** update ... where stock_quantity >= :n 한 문장으로 갱신 */
+    ATOMIC
+}
@@ -0,0 +1,75 @@
+package jpabook.jpashop.api;
+
+import com.jayway.jsonpath.JsonPath;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// MockMvc 는 테스트와 같은 스레드에서 돌아서 테스트 트랜잭션의 데이터를 그대로 읽는다.
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberApiControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private OrderService oSvc;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void memberOrdersPagesByCursor() throws Exception {
+        // arrange
+        Member m = new Member();
+        m.setName("주문내역회원");
+        m.setAddress(new Address("서울", "경기", "12345"));
+        em.persist(m);
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        Long first = oSvc.order(m.getId(), book.getId(), 1);
+        Long second = oSvc.order(m.getId(), book.getId(), 1);
+        Long third = oSvc.order(m.getId(), book.getId(), 1);
+        em.flush();
+
+        // action
+        String page1 = mvc.perform(get("/api/members/{id}/orders", m.getId()).param("limit", "2"))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(page1, "$.nextCursor");
+        String page2 = mvc.perform(get("/api/members/{id}/orders", m.getId()).param("limit", "2").param("cursor", cursor))
+                .andReturn().getResponse().getContentAsString();
+
+        // assert
+        List<Integer> page1Ids = JsonPath.read(page1, "$.data[*].orderId");
+        List<Integer> page2Ids = JsonPath.read(page2, "$.data[*].orderId");
+        assertThat(page1Ids).as("최신순").containsExactly(third.intValue(), second.intValue());
+        assertThat(page2Ids).containsExactly(first.intValue());
+        assertThat((Object) JsonPath.read(page2, "$.nextCursor")).as("마지막 페이지").isNull();
+    }
+
+    @Test
+    public void memberOrdersRejectsBadCursor() throws Exception {
+        // action
+        MockHttpServletResponse response = mvc.perform(get("/api/members/{id}/orders", 1L).param("cursor", "broken"))
+                .andReturn().getResponse();
+
+        // assert
+        assertThat(response.getStatus()).isEqualTo(400);
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class OrderExportTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void exportIsNdjson() throws Exception {
+        // action
+        MvcResult started = mvc.perform(get("/api/orders/export")).andReturn();
+        MockHttpServletResponse response = mvc.perform(asyncDispatch(started)).andReturn().getResponse();
+
+        // assert
+        assertThat(response.getContentType()).isEqualTo("application/x-ndjson");
+        assertThat(response.getContentAsString().split("\n")).as("SampleDataSetup 의 주문 2건").hasSize(2);
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.hibernate5.Hibernate5Module;
+import jpabook.jpashop.api.OrderApiController.OrderDto;
+import jpabook.jpashop.config.DtoJsonHttpMessageConverter;
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Delivery;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.Order;
+import jpabook.jpashop.domain.OrderItem;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.repository.order.query.OrderItemQueryDto;
+import jpabook.jpashop.repository.order.query.OrderQueryDto;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderJsonSerializersTest {
+    private final ObjectMapper defaultMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new Hibernate5Module())
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper fastMapper = DtoJsonHttpMessageConverter.createObjectMapper(OrderJsonSerializers.module());
+
+    @Test
+    public void sameJsonAsDefaultMapper() throws Exception {
+        // arrange
+        Member member = new Member();
+        member.setName("회원1");
+        member.setAddress(new Address("서울", "경기", "12345"));
+        Delivery delivery = new Delivery();
+        delivery.setAddress(member.getAddress());
+        Book book = new Book();
+        book.setName("시골 \"JPA\"");
+        OrderDto orderDto = new OrderDto(Order.createOrder(member, delivery, OrderItem.createReservedOrderItem(book, 10000, 2)));
+
+        OrderQueryDto queryDto = new OrderQueryDto(1L, "회원2", LocalDateTime.of(2022, 1, 1, 0, 0), OrderStatus.CANCEL, null);
+        queryDto.setOrderItems(Arrays.asList(new OrderItemQueryDto(1L, "book1", 1000, 1), new OrderItemQueryDto(1L, null, 2000, 2)));
+        OrderQueryDto noItems = new OrderQueryDto(2L, null, null, null, new Address("진주", "2", "2222"));
+        List<Object> dtos = Arrays.asList(orderDto, queryDto, noItems, Collections.singletonList(queryDto));
+
+        for (Object dto : dtos) {
+            // action
+            String expected = defaultMapper.writeValueAsString(dto);
+            String actual = fastMapper.writeValueAsString(dto);
+
+            // assert
+            assertThat(fastMapper.readTree(actual)).as(expected).isEqualTo(defaultMapper.readTree(expected));
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.api;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+import static jpabook.jpashop.config.QueryCountAssertions.assertQueryCount;
+import static org.assertj.core.api.Assertions.*;
+
+// SampleDataSetup 의 주문 2건 (회원, 배송지 각각 다름) 기준
+@SpringBootTest
+@Transactional
+class OrderSimpleApiQueryCountTest {
+    @Autowired
+    private OrderSimpleApiController simpleApi;
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    void clearPersistenceContext() {
+        em.clear();
+    }
+
+    @Test
+    public void fetchJoinRunsSingleQuery() {
+        // action
+        // assert
+        assertQueryCount(() -> simpleApi.ordersV3(), 1);
+    }
+
+    @Test
+    public void detectNPlusOne() {
+        // action
+        // assert
+        assertThatThrownBy(() -> assertQueryCount(() -> simpleApi.ordersV2(), 1))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("SQL 실행 횟수");
+    }
+}
@@ -0,0 +1,61 @@
+package jpabook.jpashop.api;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DecoratedDataSource;
+import jpabook.jpashop.config.SqlSampleRecorder;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// 운영 프로필 : p6spy decorator 는 끄고 샘플링 기록만 켠 상태
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("prod")
+class SlowQueryApiControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Autowired
+    private SqlSampleRecorder recorder;
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    public void recordsWithoutP6spyDecorator() {
+        // arrange
+        long before = recorder.recordedCount();
+
+        // action
+        // 느린 SQL 기준을 넘지 않아도 sample-rate 건 중 1건은 기록된다.
+        for (int i = 0; i < 1000; i++) {
+            jdbc.queryForObject("select 1", Integer.class);
+        }
+
+        // assert
+        assertThat(dataSource).isNotInstanceOf(DecoratedDataSource.class);
+        assertThat(recorder.recordedCount()).isGreaterThan(before);
+    }
+
+    @Test
+    public void kIsClamped() throws Exception {
+        // action
+        MockHttpServletResponse negative = mvc.perform(get("/api/admin/slow-queries").param("k", "-1"))
+                .andReturn().getResponse();
+        MockHttpServletResponse huge = mvc.perform(get("/api/admin/slow-queries").param("k", "100000"))
+                .andReturn().getResponse();
+
+        // assert
+        assertThat(negative.getStatus()).isEqualTo(200);
+        assertThat(huge.getStatus()).isEqualTo(200);
+    }
+}
@@ -0,0 +1,43 @@
+package jpabook.jpashop.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+// SampleDataSetup 의 주문 2건 기준
+@SpringBootTest
+@AutoConfigureMockMvc
+class BinaryFormatTest {
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    public void negotiateSmileAndCbor() throws Exception {
+        // action
+        MockHttpServletResponse json = mvc.perform(get("/api/v5/orders")).andReturn().getResponse();
+        MockHttpServletResponse smile = mvc.perform(get("/api/v5/orders").header(HttpHeaders.ACCEPT, "application/x-jackson-smile"))
+                .andReturn().getResponse();
+        MockHttpServletResponse cbor = mvc.perform(get("/api/v5/orders").header(HttpHeaders.ACCEPT, "application/cbor"))
+                .andReturn().getResponse();
+
+        // assert
+        JsonNode expected = new ObjectMapper().readTree(json.getContentAsByteArray());
+        assertThat(smile.getContentType()).startsWith("application/x-jackson-smile");
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(smile.getContentAsByteArray())).isEqualTo(expected);
+        assertThat(cbor.getContentType()).startsWith("application/cbor");
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(cbor.getContentAsByteArray())).isEqualTo(expected);
+        assertThat(smile.getContentAsByteArray().length).isLessThan(json.getContentAsByteArray().length);
+        assertThat(smile.getHeader(HttpHeaders.ETAG)).as("표현마다 다른 ETag").isNotEqualTo(json.getHeader(HttpHeaders.ETAG));
+    }
+}
@@ -0,0 +1,216 @@
+package jpabook.jpashop.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class CompressionFilterTest {
+    private final CompressionFilter filter = new CompressionFilter(1024, Collections.singletonList(MediaType.APPLICATION_JSON));
+
+    @Test
+    public void compressOnlyOverMinSize() throws Exception {
+        // arrange
+        byte[] small = body(100);
+        byte[] large = body(10_000);
+
+        // action
+        MockHttpServletResponse smallResponse = run("gzip, deflate", small, false);
+        MockHttpServletResponse largeResponse = run("gzip, deflate", large, false);
+
+        // assert
+        assertThat(smallResponse.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(smallResponse.getContentAsByteArray()).isEqualTo(small);
+        assertThat(largeResponse.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(largeResponse.getHeader(HttpHeaders.ETAG)).as("압축하면 weak ETag").isEqualTo("W/\"v1\"");
+        assertThat(largeResponse.getContentAsByteArray().length).isLessThan(large.length);
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(largeResponse.getContentAsByteArray())))).isEqualTo(large);
+        assertThat(largeResponse.getHeaders(HttpHeaders.VARY)).contains(HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    @Test
+    public void negotiateDeflateAndSkipEarlyFlush() throws Exception {
+        // arrange
+        byte[] large = body(10_000);
+
+        // action
+        MockHttpServletResponse deflated = run("gzip;q=0, deflate", large, false);
+        MockHttpServletResponse flushedEarly = run("gzip", large, true);
+
+        // assert
+        assertThat(deflated.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("deflate");
+        assertThat(decode(new InflaterInputStream(new ByteArrayInputStream(deflated.getContentAsByteArray())))).isEqualTo(large);
+        assertThat(flushedEarly.getHeader(HttpHeaders.CONTENT_ENCODING)).as("min-size 전에 flush 하면 압축하지 않음").isNull();
+        assertThat(flushedEarly.getContentAsByteArray()).isEqualTo(large);
+        assertThat(CompressionFilter.negotiate("br, identity")).isNull();
+    }
+
+    @Test
+    public void nonBlockingWriteGoesStraightToContainer() throws Exception {
+        // arrange
+        byte[] large = body(10_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v5/orders");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        NonBlockingResponse response = new NonBlockingResponse();
+        WriteListener listener = new WriteListener() {
+            @Override
+            public void onWritePossible() {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+            }
+        };
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ServletOutputStream out = res.getOutputStream();
+            out.write(large, 0, 10);
+            out.setWriteListener(listener);
+            response.ready = false;
+            assertThat(out.isReady()).as("실제 스트림 상태를 따름").isFalse();
+            response.ready = true;
+            out.write(large, 10, large.length - 10);
+        };
+
+        // action
+        filter.doFilter(request, response, chain);
+
+        // assert
+        assertThat(response.listener).isSameAs(listener);
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).as("압축 시작 전에 non-blocking 이면 압축하지 않음").isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(large);
+    }
+
+    @Test
+    public void asyncTimeoutFinishesGzipStream() throws Exception {
+        // arrange
+        byte[] large = body(10_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/orders/export");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.setAsyncSupported(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            req.startAsync();
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            res.getOutputStream().write(large);
+        };
+
+        // action
+        filter.doFilter(request, response, chain);
+        MockAsyncContext asyncContext = (MockAsyncContext) request.getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(new AsyncEvent(asyncContext));
+        }
+
+        // assert
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))))
+                .as("타임아웃이어도 gzip trailer 까지 씀").isEqualTo(large);
+    }
+
+    @Test
+    public void invalidContentTypeIsNotCompressed() throws Exception {
+        // arrange
+        byte[] large = body(10_000);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v5/orders");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType("not-a-media-type");
+            res.getOutputStream().write(large);
+        };
+
+        // action
+        filter.doFilter(request, response, chain);
+
+        // assert
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(response.getContentAsByteArray()).isEqualTo(large);
+    }
+
+    /** MockHttpServletResponse 의 스트림은 setWriteListener 를 지원하지 않아서 흉내만 낸다. */
+    private static class NonBlockingResponse extends MockHttpServletResponse {
+        private WriteListener listener;
+        private boolean ready = true;
+        private ServletOutputStream stream;
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            if (stream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                stream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return ready;
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        listener = writeListener;
+                    }
+                };
+            }
+            return stream;
+        }
+    }
+
+    private MockHttpServletResponse run(String acceptEncoding, byte[] body, boolean flushFirst) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v5/orders");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = (req, res) -> {
+            res.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            ((HttpServletResponse) res).setHeader(HttpHeaders.ETAG, "\"v1\"");
+            if (flushFirst) {
+                res.getOutputStream().write(body, 0, 10);
+                res.getOutputStream().flush();
+                res.getOutputStream().write(body, 10, body.length - 10);
+            } else {
+                res.getOutputStream().write(body);
+            }
+        };
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static byte[] body(int size) {
+        byte[] body = new byte[size];
+        Arrays.fill(body, (byte) 'a');
+        return body;
+    }
+
+    private static byte[] decode(InputStream in) throws IOException {
+        try (InputStream is = in) {
+            return StreamUtils.copyToByteArray(is);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package jpabook.jpashop.config;
+
+import jpabook.jpashop.service.AggregateVersions;
+import jpabook.jpashop.service.AggregateVersions.Aggregate;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ETagInterceptorTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private AggregateVersions versions;
+    @Autowired
+    private PlatformTransactionManager txManager;
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    public void notModifiedUntilAggregateChanges() throws Exception {
+        // arrange
+        String etag = mvc.perform(get("/api/v2/members")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // action
+        int unchanged = mvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+        new TransactionTemplate(txManager).execute(s -> {
+            versions.bump(Aggregate.MEMBER);
+            s.setRollbackOnly();
+            return null;
+        });
+        int afterRollback = mvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+        new TransactionTemplate(txManager).execute(s -> {
+            versions.bump(Aggregate.MEMBER);
+            return null;
+        });
+        int afterCommit = mvc.perform(get("/api/v2/members").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+
+        // assert
+        assertThat(etag).isNotNull();
+        assertThat(unchanged).isEqualTo(304);
+        assertThat(afterRollback).as("롤백된 변경은 버전을 올리지 않음").isEqualTo(304);
+        assertThat(afterCommit).isEqualTo(200);
+    }
+
+    @Test
+    public void rebuildChangesOrderETag() throws Exception {
+        // arrange
+        String etag = mvc.perform(get("/api/v2/simple-orders")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // action
+        orderService.rebuildOrderSummaries();
+        int status = mvc.perform(get("/api/v2/simple-orders").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andReturn().getResponse().getStatus();
+
+        // assert
+        assertThat(status).isEqualTo(200);
+    }
+
+    @Test
+    public void errorResponseHasNoETag() throws Exception {
+        // action
+        MockHttpServletResponse response = mvc.perform(get("/api/v3.1/orders").param("cursor", "broken"))
+                .andReturn().getResponse();
+
+        // assert
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+}
@@ -0,0 +1,31 @@
+package jpabook.jpashop.config;
+
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * 쿼리 수 예산 검증 - N+1 이 다시 생기면 테스트가 깨지도록
+ *
+ * assertQueryCount(() -> controller.ordersV3(), 1);
+ */
+public final class QueryCountAssertions {
+    private QueryCountAssertions() {
+    }
+
+    public static <T> T assertQueryCount(Supplier<T> handler, int max) {
+        QueryCounter.start();
+        T result;
+        QueryCounter counter;
+        try {
+            result = handler.get();
+        } finally {
+            counter = QueryCounter.finish();
+        }
+
+        assertThat(counter.getTotal())
+                .as("SQL 실행 횟수가 %d 이하여야 한다. 실행된 쿼리 : %s", max, counter.countByShape())
+                .isLessThanOrEqualTo(max);
+        return result;
+    }
+}
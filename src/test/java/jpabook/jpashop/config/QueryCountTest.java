@@ -0,0 +1,20 @@
+package jpabook.jpashop.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 컨트롤러 단위의 쿼리 수 검증은 api.OrderSimpleApiQueryCountTest
+class QueryCountTest {
+
+    @Test
+    public void shapeIgnoresInListSize() {
+        // arrange
+        String two = "select m.id from member m where m.id in (?, ?)";
+        String three = "select m.id from member m\n where m.id in (?,?,?)";
+
+        // action
+        // assert
+        assertThat(QueryCounter.shapeOf(two)).isEqualTo(QueryCounter.shapeOf(three));
+    }
+}
@@ -0,0 +1,195 @@
+package jpabook.jpashop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.servlet.http.Cookie;
+import java.io.IOException;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+
+// h2 in-memory db 3개 (primary, replica 2개) 에 각자 자기 이름을 넣어두고 어디서 읽었는지 확인
+class ReplicaRoutingDataSourceTest {
+    private HikariDataSource primary;
+    private HikariDataSource replica1;
+    private HikariDataSource replica2;
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primary");
+        replica1 = h2("replica1");
+        replica2 = h2("replica2");
+    }
+
+    @AfterEach
+    void tearDown() {
+        routing.close();
+    }
+
+    @Test
+    public void readOnlyGoesToReplicasRoundRobin() {
+        // arrange
+        routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), ReplicaPolicy.ROUND_ROBIN, 0);
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        List<String> sampled = new ArrayList<>();
+        routing.setSqlExecutionListener((sql, elapsed) -> sampled.add(sql));
+
+        // action
+        String first = readOnly(jdbc);
+        String second = readOnly(jdbc);
+        String third = readOnly(jdbc);
+        String write = tx(jdbc, false);
+
+        // assert
+        assertThat(Arrays.asList(first, second, third)).containsExactly("replica1", "replica2", "replica1");
+        assertThat(write).isEqualTo("primary");
+        assertThat(routing.stats()).extracting(ReplicaRoutingDataSource.TargetStatsDto::getStatements)
+                .as("대상별 SQL 수").containsExactly(1L, 2L, 1L);
+        assertThat(sampled).as("샘플링은 대상별 통계와 같은 래퍼에서 받음").hasSize(4);
+    }
+
+    @Test
+    public void readYourWritesStaysOnPrimary() {
+        // arrange
+        routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), ReplicaPolicy.ROUND_ROBIN, 60_000);
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        TransactionTemplate writeTx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+
+        // action
+        String before = readOnly(jdbc);
+        writeTx.execute(s -> jdbc.update("insert into marker (name) values ('written')"));
+        String after = readOnly(jdbc);
+
+        // assert
+        assertThat(before).isEqualTo("replica1");
+        assertThat(after).as("쓰기 커밋 직후의 읽기는 primary").isEqualTo("primary");
+    }
+
+    @Test
+    public void readYourWritesFollowsClientNotThread() throws Exception {
+        // arrange
+        routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), ReplicaPolicy.ROUND_ROBIN, 60_000);
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        TransactionTemplate writeTx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(60_000);
+        List<String> reads = new ArrayList<>();
+
+        // action
+        // 요청 1 : 쓰기 후 같은 요청에서 읽기
+        MockHttpServletResponse writeResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), writeResponse, (req, res) -> {
+            writeTx.execute(s -> jdbc.update("insert into marker (name) values ('written')"));
+            reads.add(readOnly(jdbc));
+        });
+        Cookie pin = writeResponse.getCookie(ReadYourWritesFilter.COOKIE);
+
+        // 요청 2 : 같은 스레드지만 쿠키가 없는 다른 클라이언트
+        filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (req, res) -> reads.add(readOnly(jdbc)));
+
+        // 요청 3 : 쿠키를 가진 같은 클라이언트
+        MockHttpServletRequest sameClient = new MockHttpServletRequest();
+        sameClient.setCookies(pin);
+        filter.doFilter(sameClient, new MockHttpServletResponse(), (req, res) -> reads.add(readOnly(jdbc)));
+
+        // assert
+        assertThat(pin).isNotNull();
+        assertThat(reads).containsExactly("primary", "replica1", "primary");
+    }
+
+    @Test
+    public void replicaReadResponseHasNoETag() throws Exception {
+        // arrange
+        routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), ReplicaPolicy.ROUND_ROBIN, 60_000);
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+        TransactionTemplate writeTx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(60_000);
+
+        // action
+        // 레플리카를 읽은 요청
+        MockHttpServletResponse replicaResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), replicaResponse, (req, res) -> {
+            readOnly(jdbc);
+            writeETag((MockHttpServletRequest) req, (MockHttpServletResponse) res);
+        });
+
+        // 쓰기 후 primary 를 읽은 요청
+        MockHttpServletResponse primaryResponse = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest(), primaryResponse, (req, res) -> {
+            writeTx.execute(s -> jdbc.update("insert into marker (name) values ('written')"));
+            readOnly(jdbc);
+            writeETag((MockHttpServletRequest) req, (MockHttpServletResponse) res);
+        });
+
+        // assert
+        assertThat(replicaResponse.getHeader(HttpHeaders.ETAG)).as("복제 지연된 데이터일 수 있음").isNull();
+        assertThat(primaryResponse.getHeader(HttpHeaders.ETAG)).isEqualTo("\"v1\"");
+    }
+
+    @Test
+    public void leastConnectionsAvoidsBusyReplica() throws Exception {
+        // arrange
+        routing = new ReplicaRoutingDataSource(primary, Arrays.asList(replica1, replica2), ReplicaPolicy.LEAST_CONNECTIONS, 0);
+        JdbcTemplate jdbc = new JdbcTemplate(new LazyConnectionDataSourceProxy(routing));
+
+        // action
+        String result;
+        try (Connection busy = replica1.getConnection()) {
+            result = readOnly(jdbc);
+        }
+
+        // assert
+        assertThat(result).isEqualTo("replica2");
+    }
+
+    // ETagInterceptor 가 통과시킨 요청의 body 를 쓰는 시점
+    private static void writeETag(MockHttpServletRequest request, MockHttpServletResponse response) throws IOException {
+        request.setAttribute(ETagInterceptor.ETAG_ATTRIBUTE, "\"v1\"");
+        ServletServerHttpResponse serverResponse = new ServletServerHttpResponse(response);
+        new ETagResponseAdvice().beforeBodyWrite("body", null, MediaType.APPLICATION_JSON, null,
+                new ServletServerHttpRequest(request), serverResponse);
+        serverResponse.flush();
+    }
+
+    private String readOnly(JdbcTemplate jdbc) {
+        return tx(jdbc, true);
+    }
+
+    // 트랜잭션 매니저도 jdbc 와 같은 (lazy) DataSource 를 써야 트랜잭션 커넥션이 공유된다.
+    private String tx(JdbcTemplate jdbc, boolean readOnly) {
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(jdbc.getDataSource()));
+        tx.setReadOnly(readOnly);
+        return tx.execute(s -> {
+            List<String> names = jdbc.queryForList("select name from marker order by name", String.class);
+            return names.get(0);
+        });
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource ds = new HikariDataSource();
+        ds.setJdbcUrl("jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        ds.setUsername("sa");
+        ds.setPoolName(name);
+        JdbcTemplate jdbc = new JdbcTemplate(ds);
+        jdbc.execute("create table marker (name varchar(255))");
+        jdbc.update("insert into marker (name) values (?)", name);
+        return ds;
+    }
+}
@@ -0,0 +1,59 @@
+package jpabook.jpashop.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SqlSampleRecorderTest {
+
+    @Test
+    public void fingerprintIgnoresLiteralsAndInListSize() {
+        // arrange
+        String a = "select * from member where name = 'kim' and member_id in (1, 2)";
+        String b = "SELECT *\n  FROM member WHERE name = 'o''brien' AND member_id IN (3,4,5)";
+
+        // assert
+        assertThat(SqlFingerprint.of(a)).isEqualTo(SqlFingerprint.of(b))
+                .isEqualTo("select * from member where name = ? and member_id in (?)");
+    }
+
+    @Test
+    public void recordAllSlowAndNoFastWhenSamplingOff() {
+        // arrange
+        SqlSampleRecorder recorder = new SqlSampleRecorder(0, 100, 16);
+
+        // action
+        recorder.onExecute("select 1", TimeUnit.MILLISECONDS.toNanos(1));
+        recorder.onExecute("select * from orders where order_id = 1", TimeUnit.MILLISECONDS.toNanos(300));
+        recorder.onExecute("select * from orders where order_id = 2", TimeUnit.MILLISECONDS.toNanos(200));
+
+        // assert
+        List<SqlSampleRecorder.SlowQuery> top = recorder.topSlowQueries(10);
+        assertThat(recorder.recordedCount()).as("빠른 쿼리는 샘플링되지 않음").isEqualTo(2);
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).getSamples()).as("값만 다른 쿼리는 하나로 집계").isEqualTo(2);
+        assertThat(top.get(0).getMaxMs()).isEqualTo(300.0);
+        assertThat(top.get(0).getExampleSql()).isEqualTo("select * from orders where order_id = 1");
+    }
+
+    @Test
+    public void ringBufferKeepsOnlyLatest() {
+        // arrange
+        SqlSampleRecorder recorder = new SqlSampleRecorder(1, 100, 8);
+
+        // action
+        for (int i = 0; i < 20; i++) {
+            recorder.onExecute("select " + i, 0);
+        }
+
+        // assert
+        assertThat(recorder.recordedCount()).isEqualTo(20);
+        assertThat(recorder.snapshot()).hasSize(8)
+                .extracting(s -> s.getSql())
+                .containsExactlyInAnyOrder("select 12", "select 13", "select 14", "select 15",
+                        "select 16", "select 17", "select 18", "select 19");
+    }
+}
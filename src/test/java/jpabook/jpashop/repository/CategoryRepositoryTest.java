@@ -0,0 +1,98 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryRepositoryTest {
+    @Autowired
+    private CategoryRepository cRepo;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void findSubtreeByClosure() {
+        // arrange
+        // root - a - a1
+        //      - b
+        // 하위 트리(x - y)를 먼저 만든 뒤 a 밑에 붙임
+        Category root = createCategory("root");
+        Category a = createCategory("a");
+        Category a1 = createCategory("a1");
+        Category b = createCategory("b");
+        Category x = createCategory("x");
+        Category y = createCategory("y");
+        root.addChildCategory(a);
+        root.addChildCategory(b);
+        a.addChildCategory(a1);
+        x.addChildCategory(y);
+        a.addChildCategory(x);
+
+        Book book1 = createBook("book1");
+        Book book2 = createBook("book2");
+        Book book3 = createBook("book3");
+        a1.getItems().add(book1);
+        y.getItems().add(book2);
+        y.getItems().add(book1);
+        b.getItems().add(book3);
+
+        em.flush();
+        em.clear();
+
+        // action
+        List<Category> descendants = cRepo.findDescendants(root.getId());
+        List<Item> itemsUnderA = cRepo.findItemsInSubtree(a.getId(), null, 10);
+        List<Item> firstPage = cRepo.findItemsInSubtree(root.getId(), null, 2);
+        List<Item> secondPage = cRepo.findItemsInSubtree(root.getId(), firstPage.get(1).getId(), 2);
+
+        // assert
+        assertThat(descendants).extracting(Category::getName).as("깊이와 상관없이 모든 하위 카테고리")
+                .containsExactlyInAnyOrder("a", "b", "a1", "x", "y");
+        assertThat(descendants.get(descendants.size() - 1).getName()).as("가까운 레벨부터").isEqualTo("y");
+        assertThat(itemsUnderA).extracting(Item::getName).as("여러 카테고리에 속한 상품도 한 번만")
+                .containsExactlyInAnyOrder("book1", "book2");
+        assertThat(firstPage).hasSize(2);
+        assertThat(secondPage).extracting(Item::getName).containsExactly("book3");
+    }
+
+    @Test
+    public void cannotMoveCategoryToOtherParent() {
+        // arrange
+        Category root = createCategory("root");
+        Category a = createCategory("a");
+        root.addChildCategory(a);
+        Category other = createCategory("other");
+        other.addChildCategory(createCategory("child"));
+
+        // action
+        // assert
+        assertThatThrownBy(() -> other.addChildCategory(a)).isInstanceOf(IllegalStateException.class);
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        cRepo.save(category);
+        return category;
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
@@ -0,0 +1,61 @@
+package jpabook.jpashop.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ChunkedInQueryTest {
+
+    @Test
+    public void splitByChunkSize() {
+        // arrange
+        List<Long> ids = LongStream.rangeClosed(1, 1203).boxed().collect(Collectors.toList());
+
+        // action
+        List<List<Long>> chunks = ChunkedInQuery.chunks(ids, 500);
+
+        // assert
+        assertThat(chunks).extracting(List::size).containsExactly(500, 500, 203);
+        assertThat(chunks.get(2)).startsWith(1001L).endsWith(1203L);
+    }
+
+    @Test
+    public void runsOnCallerConnectionWhenEntityManagerIsBound() {
+        // arrange
+        EntityManagerFactory emf = mock(EntityManagerFactory.class);
+        ChunkedInQuery chunkedInQuery = new ChunkedInQuery(10, 4, emf, mock(PlatformTransactionManager.class));
+        List<Long> ids = LongStream.rangeClosed(1, 35).boxed().collect(Collectors.toList());
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        Function<List<Long>, Map<Long, Long>> query = chunk -> {
+            threads.add(Thread.currentThread().getName());
+            return chunk.stream().collect(Collectors.toMap(id -> id, id -> id));
+        };
+
+        // action
+        // OSIV 처럼 요청 스레드에 EntityManager 가 묶여 있는 상태
+        TransactionSynchronizationManager.bindResource(emf, new Object());
+        Map<Long, Long> result;
+        try {
+            result = chunkedInQuery.fetch(ids, query);
+        } finally {
+            TransactionSynchronizationManager.unbindResource(emf);
+            chunkedInQuery.shutdown();
+        }
+
+        // assert
+        assertThat(result).hasSize(35);
+        assertThat(threads).as("다른 커넥션을 기다리지 않도록 호출 스레드에서만 실행").containsExactly(Thread.currentThread().getName());
+    }
+}
@@ -0,0 +1,54 @@
+package jpabook.jpashop.repository;
+
+import jpabook.jpashop.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class OrderCursorTest {
+    private static final LocalDateTime BASE = LocalDateTime.of(2020, 1, 1, 0, 0);
+
+    @Test
+    public void pageClampsLimitAndBuildsNextCursor() {
+        // arrange
+        List<Long> ids = LongStream.rangeClosed(1, 3).boxed().collect(Collectors.toList());
+        List<Integer> requested = new ArrayList<>();
+
+        // action
+        OrderCursor.Page<Long> page = OrderCursor.page(null, 0, (cursor, size) -> {
+            requested.add(size);
+            return ids.subList(0, Math.min(size, ids.size()));
+        }, id -> new OrderCursor(BASE, id));
+
+        // assert
+        assertThat(requested).as("limit 0 -> 1 건 + 다음 페이지 확인용 1 건").containsExactly(2);
+        assertThat(page.getRows()).containsExactly(1L);
+        assertThat(OrderCursor.decode(page.getNextCursor()).getOrderId()).isEqualTo(1L);
+        assertThat(OrderCursor.clampLimit(-5)).isEqualTo(1);
+        assertThat(OrderCursor.clampLimit(10_000_000)).isEqualTo(OrderCursor.MAX_LIMIT);
+    }
+
+    @Test
+    public void lastPageHasNoNextCursor() {
+        // action
+        OrderCursor.Page<Long> page = OrderCursor.page("", 20, (cursor, size) -> List.of(1L, 2L),
+                id -> new OrderCursor(BASE, id));
+
+        // assert
+        assertThat(page.getRows()).containsExactly(1L, 2L);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    public void malformedCursorIsBadRequest() {
+        // assert
+        assertThatThrownBy(() -> OrderCursor.decode("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+    }
+}
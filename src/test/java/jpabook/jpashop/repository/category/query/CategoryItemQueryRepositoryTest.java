@@ -0,0 +1,65 @@
+package jpabook.jpashop.repository.category.query;
+
+import jpabook.jpashop.domain.Category;
+import jpabook.jpashop.domain.item.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class CategoryItemQueryRepositoryTest {
+    @Autowired
+    private CategoryItemQueryRepository queryRepo;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void findCategoryItemsByKeyset() {
+        // arrange
+        Category novel = createCategory("소설");
+        Category bestSeller = createCategory("베스트셀러");
+        Book book1 = createBook("book1");
+        Book book2 = createBook("book2");
+        Book book3 = createBook("book3");
+        novel.getItems().add(book1);
+        novel.getItems().add(book2);
+        novel.getItems().add(book3);
+        bestSeller.getItems().add(book2);
+
+        em.flush();
+        em.clear();
+
+        // action
+        List<CategoryItemQueryDto> firstPage = queryRepo.findCategoryItems(novel.getId(), null, 2);
+        List<CategoryItemQueryDto> secondPage = queryRepo.findCategoryItems(novel.getId(), firstPage.get(1).getItemId(), 2);
+
+        // assert
+        assertThat(firstPage).extracting(CategoryItemQueryDto::getName).containsExactly("book1", "book2");
+        assertThat(secondPage).extracting(CategoryItemQueryDto::getName).containsExactly("book3");
+        assertThat(firstPage.get(1).getCategories()).extracting(CategoryRefQueryDto::getName).as("상품이 속한 모든 카테고리")
+                .containsExactly("소설", "베스트셀러");
+    }
+
+    private Category createCategory(String name) {
+        Category category = new Category();
+        category.setName(name);
+        em.persist(category);
+        return category;
+    }
+
+    private Book createBook(String name) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        return book;
+    }
+}
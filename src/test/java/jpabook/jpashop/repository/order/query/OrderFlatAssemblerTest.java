@@ -0,0 +1,62 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 순수 로직이므로 스프링 없이 단위테스트
+class OrderFlatAssemblerTest {
+
+    @Test
+    public void foldConsecutiveRows() {
+        // arrange
+        List<OrderFlatDto> rows = Arrays.asList(
+                row(1L, "item1"), row(1L, "item2"),
+                row(2L, "item3"),
+                row(3L, "item4"), row(3L, "item5"));
+
+        // action
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(rows.iterator(), Integer.MAX_VALUE);
+
+        // assert
+        assertThat(result).extracting(OrderQueryDto::getOrderId).as("조회 순서가 유지되어야한다.").containsExactly(1L, 2L, 3L);
+        assertThat(result.get(0).getOrderItems()).extracting(OrderItemQueryDto::getItemName).containsExactly("item1", "item2");
+        assertThat(result.get(2).getOrderItems()).hasSize(2);
+    }
+
+    @Test
+    public void stopAtMaxOrders() {
+        // arrange
+        List<OrderFlatDto> rows = Arrays.asList(
+                row(1L, "item1"), row(1L, "item2"),
+                row(2L, "item3"), row(2L, "item4"),
+                row(3L, "item5"));
+        Iterator<OrderFlatDto> it = rows.iterator();
+
+        // action
+        List<OrderQueryDto> result = OrderFlatAssembler.assemble(it, 1);
+
+        // assert
+        assertThat(result).extracting(OrderQueryDto::getOrderId).containsExactly(1L);
+        assertThat(result.get(0).getOrderItems()).as("마지막 주문도 상품이 잘리면 안 된다.").hasSize(2);
+        assertThat(it.hasNext()).as("limit 이 채워지면 남은 row 는 읽지 않는다.").isTrue();
+    }
+
+    @Test
+    public void emptyRows() {
+        assertThat(OrderFlatAssembler.assemble(new ArrayList<OrderFlatDto>().iterator(), 10)).isEmpty();
+    }
+
+    private OrderFlatDto row(Long orderId, String itemName) {
+        return new OrderFlatDto(orderId, "회원" + orderId, LocalDateTime.of(2022, 1, 1, 0, 0), OrderStatus.ORDER,
+                new Address("서울", "경기", "12345"), itemName, 10000, 1);
+    }
+}
@@ -0,0 +1,60 @@
+package jpabook.jpashop.repository.order.query;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class OrderQueryRepositoryTest {
+    @Autowired
+    private OrderQueryRepository queryRepo;
+    @Autowired
+    private OrderService oSvc;
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    public void tupleMappedDtosMatchColumns() {
+        // arrange
+        Member m = new Member();
+        m.setName("회원1");
+        m.setAddress(new Address("서울", "경기", "12345"));
+        em.persist(m);
+        Book book = new Book();
+        book.setName("시골 JPA");
+        book.setPrice(10000);
+        book.setStockQuantity(10);
+        em.persist(book);
+        Long orderId = oSvc.order(m.getId(), book.getId(), 3);
+        em.flush();
+        em.clear();
+
+        // action
+        OrderQueryDto order = queryRepo.findAllByDto_optimization().stream()
+                .filter(o -> o.getOrderId().equals(orderId))
+                .findFirst().orElseThrow(IllegalStateException::new);
+        List<OrderFlatDto> flat = queryRepo.findAllByDto_flat();
+
+        // assert
+        assertThat(order.getName()).isEqualTo("회원1");
+        assertThat(order.getOrderStatus()).isEqualTo(OrderStatus.ORDER);
+        assertThat(order.getAddress().getCity()).isEqualTo("서울");
+        assertThat(order.getOrderItems()).extracting(OrderItemQueryDto::getItemName, OrderItemQueryDto::getOrderPrice, OrderItemQueryDto::getCount)
+                .containsExactly(tuple("시골 JPA", 10000, 3));
+        assertThat(flat).filteredOn(r -> r.getOrderId().equals(orderId))
+                .extracting(OrderFlatDto::getName, OrderFlatDto::getItemName, OrderFlatDto::getCount)
+                .containsExactly(tuple("회원1", "시골 JPA", 3));
+    }
+}
@@ -0,0 +1,57 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.domain.item.Item;
+import jpabook.jpashop.repository.ItemPriceStock;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class ItemServiceTest {
+    @Autowired ItemService iSvc;
+    @Autowired EntityManager em;
+
+    @Test
+    public void bulkUpdateReplacesLoadedEntities() {
+        // arrange
+        Book a = createBook("JPA", 10000, 10);
+        Book b = createBook("Spring", 20000, 20);
+        em.flush();
+        int versionBefore = a.getVersion();
+
+        // action
+        List<Long> missing = iSvc.updatePriceAndStock(Arrays.asList(
+                new ItemPriceStock(b.getId(), 21000, 5),
+                new ItemPriceStock(a.getId(), 11000, 1),
+                new ItemPriceStock(-1L, 1, 1),
+                new ItemPriceStock(a.getId(), 12000, 3)));
+
+        // assert
+        assertThat(missing).containsExactly(-1L);
+        // 영속성 컨텍스트에 있던 엔티티는 detach 되고 다시 조회하면 DB 의 값
+        assertThat(em.contains(a)).isFalse();
+        Item reloadedA = iSvc.findOne(a.getId());
+        assertThat(reloadedA.getPrice()).as("같은 id 는 마지막 값").isEqualTo(12000);
+        assertThat(reloadedA.getStockQuantity()).isEqualTo(3);
+        assertThat(reloadedA.getVersion()).isEqualTo(versionBefore + 1);
+        assertThat(iSvc.findOne(b.getId()).getPrice()).isEqualTo(21000);
+    }
+
+    private Book createBook(String name, int price, int stockQuantity) {
+        Book book = new Book();
+        book.setName(name);
+        book.setPrice(price);
+        book.setStockQuantity(stockQuantity);
+        iSvc.saveItem(book);
+        return book;
+    }
+}
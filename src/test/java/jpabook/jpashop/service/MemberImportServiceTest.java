@@ -0,0 +1,125 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.repository.MemberRepository;
+import jpabook.jpashop.service.MemberImportResult.RowError;
+import jpabook.jpashop.service.MemberImportService.Format;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// 청크마다 자체 트랜잭션으로 커밋하므로 @Transactional 을 걸지 않고 이름을 겹치지 않게 만든다.
+@SpringBootTest
+class MemberImportServiceTest {
+    @Autowired MemberImportService importSvc;
+    @Autowired MemberService mSvc;
+    @Autowired MemberRepository mRepo;
+
+    @Test
+    public void importCsvSkipsInvalidRows() throws Exception {
+        // arrange
+        String p = "csv" + System.nanoTime() + "-";
+        Member existing = new Member();
+        existing.setName(p + "old");
+        mSvc.join(existing);
+
+        String csv = "name,city,street,zipcode\n"
+                + p + "a,서울,\"강남대로 1, 101호\",12345\n"
+                + p + "old,서울,x,1\n"
+                + ",서울,x,1\n"
+                + "\n"
+                + p + "a,부산,y,2\n"
+                + p + "b\n"
+                + "\"" + p + "c,서울\n";
+
+        // action
+        MemberImportResult result = importSvc.importMembers(body(csv), Format.CSV, StandardCharsets.UTF_8);
+
+        // assert
+        assertThat(result.getTotal()).isEqualTo(6);
+        assertThat(result.getImported()).isEqualTo(2);
+        assertThat(result.getFailed()).isEqualTo(4);
+        assertThat(result.getErrors()).extracting(RowError::getLine, RowError::getName)
+                .containsExactlyInAnyOrder(
+                        tuple(3L, p + "old"),
+                        tuple(4L, null),
+                        tuple(6L, p + "a"),
+                        tuple(8L, null));
+
+        List<Member> a = mRepo.findByName(p + "a");
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0).getAddress().getStreet()).isEqualTo("강남대로 1, 101호");
+        assertThat(mRepo.findByName(p + "b")).hasSize(1);
+    }
+
+    @Test
+    public void importNdjsonAcrossChunks() throws Exception {
+        // arrange
+        String p = "nd" + System.nanoTime() + "-";
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 2500; i++) {
+            ndjson.append("{\"name\":\"").append(p).append(i).append("\",\"city\":\"서울\"}\n");
+        }
+        ndjson.append("{\"name\":\n");
+        ndjson.append("null\n");
+        ndjson.append("[1]\n");
+
+        // action
+        MemberImportResult result = importSvc.importMembers(body(ndjson.toString()), Format.NDJSON, StandardCharsets.UTF_8);
+
+        // assert
+        assertThat(result.getImported()).isEqualTo(2500);
+        assertThat(result.getErrors()).extracting(RowError::getLine).containsExactly(2501L, 2502L, 2503L);
+        assertThat(mRepo.findExistingNames(List.of(p + 0, p + 1999, p + 2499, p + 2500)))
+                .containsExactlyInAnyOrder(p + 0, p + 1999, p + 2499);
+    }
+
+    @Test
+    public void ndjsonNamesAreTrimmedLikeCsv() throws Exception {
+        // arrange
+        String p = "trim" + System.nanoTime() + "-";
+        String ndjson = "{\"name\":\"  " + p + "a \",\"city\":\" 서울 \"}\n"
+                + "{\"name\":\"" + p + "a\"}\n"
+                + "{\"name\":\"   \"}\n";
+
+        // action
+        MemberImportResult result = importSvc.importMembers(body(ndjson), Format.NDJSON, StandardCharsets.UTF_8);
+
+        // assert
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(result.getErrors()).extracting(RowError::getLine, RowError::getName)
+                .as("공백만 다른 이름은 중복, 공백뿐인 이름은 누락")
+                .containsExactly(tuple(2L, p + "a"), tuple(3L, null));
+        List<Member> a = mRepo.findByName(p + "a");
+        assertThat(a).hasSize(1);
+        assertThat(a.get(0).getAddress().getCity()).isEqualTo("서울");
+    }
+
+    @Test
+    public void readBodyInRequestCharset() throws Exception {
+        // arrange
+        String name = "회원" + System.nanoTime();
+        Charset ms949 = Charset.forName("MS949");
+        InputStream csv = new ByteArrayInputStream((name + ",서울\n").getBytes(ms949));
+
+        // action
+        MemberImportResult result = importSvc.importMembers(csv, Format.CSV, ms949);
+
+        // assert
+        assertThat(result.getImported()).isEqualTo(1);
+        assertThat(mRepo.findByName(name)).hasSize(1);
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
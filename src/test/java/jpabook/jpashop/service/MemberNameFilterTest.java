@@ -0,0 +1,51 @@
+package jpabook.jpashop.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+class MemberNameFilterTest {
+
+    @Test
+    public void alwaysMightContainBeforeReady() {
+        MemberNameFilter filter = new MemberNameFilter(1000, 0.01);
+
+        assertThat(filter.mightContain("kwon")).as("warmUp 전에는 항상 DB 조회").isTrue();
+    }
+
+    @Test
+    public void noFalseNegative() {
+        // arrange
+        MemberNameFilter filter = new MemberNameFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member" + i);
+        }
+        filter.markReady();
+
+        // assert
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("member" + i)).isTrue();
+        }
+    }
+
+    @Test
+    public void falsePositiveRateWithinBound() {
+        // arrange
+        MemberNameFilter filter = new MemberNameFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("member" + i);
+        }
+        filter.markReady();
+
+        // action
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("newbie" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // assert
+        assertThat(falsePositives).as("오탐률은 설정한 1% 근처여야한다.").isLessThan(300);
+    }
+}
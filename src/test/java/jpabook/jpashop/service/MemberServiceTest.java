@@ -61,4 +61,37 @@ class MemberServiceTest {
         // assert
         assertThrows(IllegalStateException.class, () -> mSvc.join(m2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void cannotJoinSameNameByUniqueConstraint() {
+        // arrange
+        // 다른 서버에서 가입한 경우처럼 MemberNameFilter 를 거치지 않고 저장된 회원
+        Member m1 = new Member();
+        m1.setName("kwon");
+        em.persist(m1);
+
+        Member m2 = new Member();
+        m2.setName("kwon");
+
+        // action
+        // assert
+        assertThrows(IllegalStateException.class, () -> mSvc.join(m2));
+    }
+
+    @Test
+    public void cannotRenameToExistingName() {
+        // arrange
+        Member m1 = new Member();
+        m1.setName("kwon");
+        em.persist(m1);
+
+        Member m2 = new Member();
+        m2.setName("lee");
+        em.persist(m2);
+        em.flush();
+
+        // action
+        // assert
+        assertThrows(IllegalStateException.class, () -> mSvc.update(m2.getId(), "kwon"));
+    }
+}
@@ -4,15 +4,24 @@ import jpabook.jpashop.domain.Address;
 import jpabook.jpashop.domain.Member;
 import jpabook.jpashop.domain.Order;
 import jpabook.jpashop.domain.OrderStatus;
+import jpabook.jpashop.domain.OrderSummary;
 import jpabook.jpashop.domain.item.Book;
 import jpabook.jpashop.exception.NotEnoughStockException;
 import jpabook.jpashop.repository.OrderRepository;
+import jpabook.jpashop.repository.OrderSearch;
+import jpabook.jpashop.repository.OrderSummaryRepository;
+import jpabook.jpashop.repository.sales.SalesDailyDto;
+import jpabook.jpashop.repository.sales.SalesItemDto;
+import jpabook.jpashop.repository.sales.SalesRollupRepository;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -23,6 +32,8 @@ class OrderServiceTest {
     @Autowired
     private OrderService oSvc;
     @Autowired private OrderRepository oRepo;
+    @Autowired private OrderSummaryRepository summaryRepo;
+    @Autowired private SalesRollupRepository salesRepo;
     @Autowired
     private EntityManager em;
 
@@ -78,6 +89,150 @@ class OrderServiceTest {
         assertThat(book.getStockQuantity()).as("주문이 취소되면 그만큼 재고가 증가해야한다.").isEqualTo(10);
     }
 
+    @Test
+    public void orderBulk() {
+        // arrange
+        Member m = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("토비의 봄", 20000, 10);
+
+        List<BulkOrderDto> orders = Arrays.asList(
+                new BulkOrderDto(m.getId(), Arrays.asList(new BulkOrderDto.Line(book1.getId(), 1), new BulkOrderDto.Line(book2.getId(), 2))),
+                new BulkOrderDto(m.getId(), Arrays.asList(new BulkOrderDto.Line(book1.getId(), 3))));
+
+        // action
+        List<Long> orderIds = oSvc.orderBulk(orders);
+
+        // assert
+        assertThat(orderIds).hasSize(2);
+        assertThat(oRepo.findOne(orderIds.get(0)).getTotalPrice()).isEqualTo(10000 + 20000 * 2);
+        assertThat(em.find(Book.class, book1.getId()).getStockQuantity()).as("여러 주문의 수량을 합산해서 차감").isEqualTo(6);
+        assertThat(em.find(Book.class, book2.getId()).getStockQuantity()).isEqualTo(8);
+    }
+
+    @Test
+    public void orderBulkRollbackAllWhenNotEnoughStock() {
+        // arrange
+        Member m = createMember();
+        Book book = createBook("시골 JPA", 10000, 3);
+
+        List<BulkOrderDto> orders = Arrays.asList(
+                new BulkOrderDto(m.getId(), Arrays.asList(new BulkOrderDto.Line(book.getId(), 2))),
+                new BulkOrderDto(m.getId(), Arrays.asList(new BulkOrderDto.Line(book.getId(), 2))));
+
+        // action
+        // assert
+        assertThatThrownBy(() -> oSvc.orderBulk(orders))
+                .isInstanceOf(NotEnoughStockException.class);
+    }
+
+    @Test
+    public void findOrdersByMemberNamePrefixAndItem() {
+        // arrange
+        Member kim = createMember("검색김_1");
+        Member lee = createMember("검색이_1");
+        Book jpa = createBook("시골 JPA", 10000, 10);
+        Book spring = createBook("시골 Spring", 20000, 10);
+
+        Long kimJpa = oSvc.order(kim.getId(), jpa.getId(), 1);
+        Long kimSpring = oSvc.order(kim.getId(), spring.getId(), 1);
+        oSvc.order(lee.getId(), jpa.getId(), 1);
+        oSvc.cancelOrder(kimSpring);
+
+        OrderSearch byName = new OrderSearch();
+        byName.setMemberName("검색김");
+        OrderSearch byNameAndItem = new OrderSearch();
+        byNameAndItem.setMemberName("검색김");
+        byNameAndItem.setItemId(jpa.getId());
+        OrderSearch byNameAndStatus = new OrderSearch();
+        byNameAndStatus.setMemberName("검색김");
+        byNameAndStatus.setOrderStatus(OrderStatus.CANCEL);
+        OrderSearch likeWildcard = new OrderSearch();
+        likeWildcard.setMemberName("검색%");
+
+        // action
+        List<Order> nameResult = oSvc.searchOrders(byName);
+        List<Order> nameItemResult = oSvc.searchOrders(byNameAndItem);
+        List<Order> nameStatusResult = oSvc.searchOrders(byNameAndStatus);
+        List<Order> wildcardResult = oSvc.searchOrders(likeWildcard);
+
+        // assert
+        assertThat(nameResult).extracting(Order::getId).as("회원명 앞부분 일치").containsExactlyInAnyOrder(kimJpa, kimSpring);
+        assertThat(nameItemResult).extracting(Order::getId).as("해당 상품을 포함한 주문만").containsExactly(kimJpa);
+        assertThat(nameStatusResult).extracting(Order::getId).containsExactly(kimSpring);
+        assertThat(wildcardResult).as("검색어의 % 는 문자 그대로 취급").isEmpty();
+    }
+
+    @Test
+    public void orderListScreenKeepsSubstringMatch() {
+        // arrange
+        Member kim = createMember("화면김_1");
+        Book jpa = createBook("시골 JPA", 10000, 10);
+        Long orderId = oSvc.order(kim.getId(), jpa.getId(), 1);
+        OrderSearch byMiddle = new OrderSearch();
+        byMiddle.setMemberName("김_");
+
+        // action
+        List<Order> screenResult = oSvc.findOrders(byMiddle);
+        List<Order> apiResult = oSvc.searchOrders(byMiddle);
+
+        // assert
+        assertThat(screenResult).extracting(Order::getId).as("화면은 부분 일치").contains(orderId);
+        assertThat(apiResult).extracting(Order::getId).as("검색 API 는 앞부분 일치").doesNotContain(orderId);
+    }
+
+    @Test
+    public void orderSummaryFollowsOrderCancelAndRebuild() {
+        // arrange
+        Member m = createMember();
+        Book book = createBook("시골 JPA", 10000, 10);
+        Long orderId = oSvc.order(m.getId(), book.getId(), 1);
+
+        // action
+        oSvc.cancelOrder(orderId);
+        em.flush();
+        em.clear();
+        OrderSummary afterCancel = summaryRepo.findOne(orderId);
+        long orderCount = em.createQuery("select count(o) from Order o", Long.class).getSingleResult();
+        int rebuilt = oSvc.rebuildOrderSummaries();
+        OrderSummary afterRebuild = summaryRepo.findOne(orderId);
+
+        // assert
+        assertThat(afterCancel.getMemberName()).isEqualTo("회원1");
+        assertThat(afterCancel.getStatus()).as("취소가 같은 트랜잭션에서 반영").isEqualTo(OrderStatus.CANCEL);
+        assertThat((long) rebuilt).as("모든 주문으로 다시 생성").isEqualTo(orderCount);
+        assertThat(afterRebuild.getStatus()).isEqualTo(OrderStatus.CANCEL);
+        assertThat(afterRebuild.getAddress().getCity()).isEqualTo("서울");
+    }
+
+    @Test
+    public void salesRollupMatchesSourceAfterOrderAndCancel() {
+        // arrange
+        salesRepo.rebuild();
+        Member m = createMember();
+        Book book1 = createBook("시골 JPA", 10000, 10);
+        Book book2 = createBook("도시 JPA", 20000, 10);
+        LocalDate today = LocalDate.now();
+
+        // action
+        oSvc.order(m.getId(), book1.getId(), 2);
+        Long canceledId = oSvc.order(m.getId(), book2.getId(), 3);
+        oSvc.cancelOrder(canceledId);
+        Throwable recancel = catchThrowable(() -> oSvc.cancelOrder(canceledId));
+        em.flush();
+        List<SalesDailyDto> rollup = salesRepo.findDaily(today, today, null);
+        List<SalesDailyDto> live = salesRepo.findDailyFromSource(today, today, null);
+        List<SalesItemDto> canceledItems = salesRepo.findTopItems(today, today, OrderStatus.CANCEL, 10);
+
+        // assert
+        assertThat(recancel).isInstanceOf(IllegalStateException.class);
+        assertThat(book2.getStockQuantity()).as("재고는 한 번만 원복").isEqualTo(10);
+        assertThat(rollup).as("증분 갱신한 롤업 = 원본 SUM").containsExactlyElementsOf(live);
+        assertThat(canceledItems).extracting(SalesItemDto::getItemId).contains(book2.getId());
+        assertThat(canceledItems).filteredOn(i -> i.getItemId().equals(book2.getId()))
+                .extracting(SalesItemDto::getRevenue).as("취소는 한 번만 반영").containsExactly(60000L);
+    }
+
     private Book createBook(String name, int price, int quantity) {
         Book book = new Book();
         book.setName(name);
@@ -88,8 +243,12 @@ class OrderServiceTest {
     }
 
     private Member createMember() {
+        return createMember("회원1");
+    }
+
+    private Member createMember(String name) {
         Member m = new Member();
-        m.setName("회원1");
+        m.setName(name);
         m.setAddress(new Address("서울", "경기", "12345"));
         em.persist(m);
         return m;
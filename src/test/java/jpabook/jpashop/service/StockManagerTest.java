@@ -0,0 +1,175 @@
+package jpabook.jpashop.service;
+
+import jpabook.jpashop.domain.Address;
+import jpabook.jpashop.domain.Member;
+import jpabook.jpashop.domain.item.Book;
+import jpabook.jpashop.exception.NotEnoughStockException;
+import jpabook.jpashop.exception.StockUpdateConflictException;
+import jpabook.jpashop.repository.ItemRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+// 여러 스레드가 각자 트랜잭션으로 같은 상품을 차감하므로 테스트 트랜잭션(@Transactional) 없이 커밋한다.
+@SpringBootTest
+class StockManagerTest {
+    private static final int THREADS = 8;
+    private static final int ATTEMPTS_PER_THREAD = 5;
+
+    @Autowired private ItemRepository iRepo;
+    @Autowired private OrderService oSvc;
+    @Autowired private JdbcTemplate jdbc;
+    @Autowired private EntityManager em;
+    @Autowired private PlatformTransactionManager txManager;
+
+    @Test
+    public void atomicNeverOversells() throws Exception {
+        assertNoOversell(StockStrategy.ATOMIC);
+    }
+
+    @Test
+    public void pessimisticNeverOversells() throws Exception {
+        assertNoOversell(StockStrategy.PESSIMISTIC);
+    }
+
+    @Test
+    public void optimisticNeverOversells() throws Exception {
+        assertNoOversell(StockStrategy.OPTIMISTIC);
+    }
+
+    @Test
+    public void optimisticGivesUpAfterMaxRetry() {
+        // arrange
+        Long itemId = createBook(10);
+        AtomicInteger attempts = new AtomicInteger();
+        // 매번 compare-and-set 직전에 다른 트랜잭션이 먼저 바꾼 것처럼 version 을 올린다.
+        ItemRepository contended = new ItemRepository(em, jdbc) {
+            @Override
+            public int updateStockIfVersion(Long id, int version, int stockQuantity) {
+                attempts.incrementAndGet();
+                jdbc.update("update item set version = version + 1 where item_id = ?", id);
+                return super.updateStockIfVersion(id, version, stockQuantity);
+            }
+        };
+        StockManager stockManager = new StockManager(contended, StockStrategy.OPTIMISTIC, 2);
+
+        // action
+        Throwable thrown = catchThrowable(() -> tx().execute(s -> stockManager.removeStock(itemId, 1)));
+
+        // assert
+        assertThat(thrown).isInstanceOf(StockUpdateConflictException.class);
+        assertThat(attempts.get()).as("최초 1번 + 재시도 2번").isEqualTo(3);
+        assertThat(stockOf(itemId)).as("재고는 그대로").isEqualTo(10);
+    }
+
+    @Test
+    public void cancelRestocksAfterConcurrentOrder() {
+        // arrange
+        Long itemId = createBook(10);
+        Long memberId = createMember();
+        Long orderId = oSvc.order(memberId, itemId, 3);
+
+        // action
+        tx().execute(s -> {
+            // 취소하는 트랜잭션이 상품을 읽은 뒤에 다른 주문이 커밋되어 version 이 올라감
+            iRepo.findOne(itemId).getStockQuantity();
+            runInOtherThread(() -> oSvc.order(memberId, itemId, 2));
+            oSvc.cancelOrder(orderId);
+            return null;
+        });
+
+        // assert
+        assertThat(stockOf(itemId)).as("취소분 3 원복, 다른 주문 2 차감").isEqualTo(8);
+    }
+
+    private void assertNoOversell(StockStrategy strategy) throws Exception {
+        // arrange
+        int initialStock = 20;
+        Long itemId = createBook(initialStock);
+        StockManager stockManager = new StockManager(iRepo, strategy, 1000);
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger soldOut = new AtomicInteger();
+
+        // action
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        try {
+                            tx().execute(s -> stockManager.removeStock(itemId, 1));
+                            sold.incrementAndGet();
+                        } catch (NotEnoughStockException e) {
+                            soldOut.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        // assert
+        assertThat(sold.get()).as("재고만큼만 팔림").isEqualTo(initialStock);
+        assertThat(soldOut.get()).isEqualTo(THREADS * ATTEMPTS_PER_THREAD - initialStock);
+        assertThat(stockOf(itemId)).isZero();
+    }
+
+    private <T> T runInOtherThread(Callable<T> task) {
+        ExecutorService other = Executors.newSingleThreadExecutor();
+        try {
+            return other.submit(task).get();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            other.shutdown();
+        }
+    }
+
+    private Long createBook(int stock) {
+        return tx().execute(s -> {
+            Book book = new Book();
+            book.setName("인기 상품");
+            book.setPrice(10000);
+            book.setStockQuantity(stock);
+            em.persist(book);
+            return book.getId();
+        });
+    }
+
+    private Long createMember() {
+        return tx().execute(s -> {
+            Member m = new Member();
+            m.setName("재고회원-" + System.nanoTime());
+            m.setAddress(new Address("서울", "경기", "12345"));
+            em.persist(m);
+            return m.getId();
+        });
+    }
+
+    private int stockOf(Long itemId) {
+        return jdbc.queryForObject("select stock_quantity from item where item_id = ?", Integer.class, itemId);
+    }
+
+    private TransactionTemplate tx() {
+        return new TransactionTemplate(txManager);
+    }
+}